@@ -0,0 +1,36 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * Input shapes the sorts are measured on.
+ */
+public enum Distribution {
+
+    RANDOM,
+    SORTED,
+    REVERSED,
+    SAWTOOTH, // ascending teeth of 1024 elements
+    FEW_UNIQUE, // 16 distinct values
+    ORGAN_PIPE; // ascending then descending
+
+    private static final int SAWTOOTH_PERIOD = 1024;
+
+    private static final int FEW_UNIQUE_VALUES = 16;
+
+    public int[] generate(int size, long seed) {
+        Random random = new Random(seed);
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = switch (this) {
+                case RANDOM -> random.nextInt();
+                case SORTED -> i;
+                case REVERSED -> size - i;
+                case SAWTOOTH -> i % SAWTOOTH_PERIOD;
+                case FEW_UNIQUE -> random.nextInt(FEW_UNIQUE_VALUES);
+                case ORGAN_PIPE -> Math.min(i, size - i);
+            };
+        }
+        return array;
+    }
+}
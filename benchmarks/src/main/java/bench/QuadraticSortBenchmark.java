@@ -0,0 +1,69 @@
+package bench;
+
+import algo.Sorts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The O(n^2) sorting types; sizes stop where a single sort would take seconds.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuadraticSortBenchmark {
+
+    private static final Comparator<Integer> COMPARATOR = Integer::compare;
+
+    @Param({"INSERTION_SORT", "SELECTION_SORT", "BUBBLE_SORT"})
+    public Sorts.SortingType sortingType;
+
+    @Param
+    public Distribution distribution;
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private int[] source;
+    private int[] ints;
+    private Integer[] boxedSource;
+    private Integer[] boxed;
+
+    @Setup
+    public void setup() {
+        source = distribution.generate(size, 42);
+        ints = new int[size];
+        boxedSource = new Integer[size];
+        for (int i = 0; i < size; i++)
+            boxedSource[i] = source[i];
+        boxed = new Integer[size];
+    }
+
+    @Benchmark
+    public Integer[] sortObjects() {
+        System.arraycopy(boxedSource, 0, boxed, 0, size);
+        Sorts.sort(boxed, COMPARATOR, sortingType);
+        return boxed;
+    }
+
+    @Benchmark
+    public int[] sortInts() {
+        System.arraycopy(source, 0, ints, 0, size);
+        Sorts.sort(ints, sortingType);
+        return ints;
+    }
+}
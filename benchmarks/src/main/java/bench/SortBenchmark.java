@@ -0,0 +1,71 @@
+package bench;
+
+import algo.Sorts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every O(n log n) {@link Sorts.SortingType} on every {@link Distribution}, for Integer[] with a comparator and for int[].
+ * Each invocation copies the unsorted input into the work array first; the copy is the same for all types.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SortBenchmark {
+
+    private static final Comparator<Integer> COMPARATOR = Integer::compare;
+
+    @Param({"TIMSORT", "MYSORT", "QUICK_SORT", "HEAP_SORT", "MERGE_SORT",
+            "PARALLEL_MERGE_SORT", "PARALLEL_MYSORT", "RADIX_SORT", "ADAPTIVE"})
+    public Sorts.SortingType sortingType;
+
+    @Param
+    public Distribution distribution;
+
+    @Param({"16", "256", "4096", "65536", "1048576", "10000000"})
+    public int size;
+
+    private int[] source;
+    private int[] ints;
+    private Integer[] boxedSource;
+    private Integer[] boxed;
+
+    @Setup
+    public void setup() {
+        source = distribution.generate(size, 42);
+        ints = new int[size];
+        boxedSource = new Integer[size];
+        for (int i = 0; i < size; i++)
+            boxedSource[i] = source[i];
+        boxed = new Integer[size];
+    }
+
+    @Benchmark
+    public Integer[] sortObjects() {
+        System.arraycopy(boxedSource, 0, boxed, 0, size);
+        Sorts.sort(boxed, COMPARATOR, sortingType);
+        return boxed;
+    }
+
+    @Benchmark
+    public int[] sortInts() {
+        System.arraycopy(source, 0, ints, 0, size);
+        Sorts.sort(ints, sortingType);
+        return ints;
+    }
+}
@@ -0,0 +1,206 @@
+package containers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests of {@link ConcurrentStack}: element conservation under heavy contention, and linearizability of many
+ * short concurrent histories, each checked by searching for a sequential order that respects real time.
+ */
+class ConcurrentStackStressTest {
+
+
+    private static final int THREADS = 4;
+
+
+    @Test
+    void conservesElementsUnbounded() throws Exception {
+        conservesElements(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void conservesElementsBounded() throws Exception {
+        conservesElements(8);
+    }
+
+    // every successfully pushed value is popped at most once and is either popped or still on the stack
+    private static void conservesElements(int capacity) throws Exception {
+        ConcurrentStack<Integer> stack = new ConcurrentStack<>(capacity);
+        int opsPerThread = 200_000;
+        ConcurrentLinkedQueue<Integer> pushed = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Integer> popped = new ConcurrentLinkedQueue<>();
+        AtomicBoolean overflow = new AtomicBoolean();
+        runConcurrently(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < opsPerThread; i++) {
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        int value = thread * opsPerThread + i;
+                        if (stack.push(value))
+                            pushed.add(value);
+                    }
+                    case 1 -> {
+                        Integer value = stack.pop();
+                        if (value != null)
+                            popped.add(value);
+                    }
+                    default -> stack.top();
+                }
+                if (stack.size() > capacity)
+                    overflow.set(true);
+            }
+        });
+        for (Integer value = stack.pop(); value != null; value = stack.pop())
+            popped.add(value);
+
+        assertFalse(overflow.get(), "size exceeded the capacity");
+        Set<Integer> unique = new HashSet<>(popped);
+        assertEquals(popped.size(), unique.size(), "a value was popped twice");
+        assertEquals(new HashSet<>(pushed), unique);
+        assertTrue(stack.empty());
+    }
+
+
+    @Test
+    void historiesAreLinearizableUnbounded() throws Exception {
+        historiesAreLinearizable(Integer.MAX_VALUE, 0);
+    }
+
+    @Test
+    void historiesAreLinearizableBounded() throws Exception {
+        historiesAreLinearizable(2, 0);
+    }
+
+    // capacity 1 starting full: a push must fail until a pop has taken the initial element
+    @Test
+    void historiesAreLinearizableWhenFull() throws Exception {
+        historiesAreLinearizable(1, 1);
+    }
+
+    private static void historiesAreLinearizable(int capacity, int prefilled) throws Exception {
+        int opsPerThread = 3;
+        for (int trial = 0; trial < 2_000; trial++) {
+            ConcurrentStack<Integer> stack = new ConcurrentStack<>(capacity);
+            ArrayDeque<Integer> initial = new ArrayDeque<>();
+            for (int i = 0; i < prefilled; i++) {
+                stack.push(-1 - i);
+                initial.push(-1 - i);
+            }
+            ConcurrentLinkedQueue<Op> history = new ConcurrentLinkedQueue<>();
+            runConcurrently(THREADS, thread -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerThread; i++) {
+                    Kind kind = Kind.values()[random.nextInt(Kind.values().length)];
+                    int value = thread * opsPerThread + i;
+                    long start = System.nanoTime();
+                    Object result = switch (kind) {
+                        case PUSH -> stack.push(value);
+                        case POP -> stack.pop();
+                        case TOP -> stack.top();
+                    };
+                    history.add(new Op(kind, value, result, start, System.nanoTime()));
+                }
+            });
+            List<Op> ops = new ArrayList<>(history);
+            assertTrue(linearizable(ops, new boolean[ops.size()], ops.size(), initial, capacity),
+                    "no sequential order explains " + ops);
+        }
+    }
+
+
+    // the history an eliminating bounded push could produce: B handed to a pop while A kept the only slot
+    @Test
+    void checkerRejectsPushPastCapacity() {
+        ArrayDeque<Integer> initial = new ArrayDeque<>();
+        initial.push(-1);
+        List<Op> ops = List.of(
+                new Op(Kind.PUSH, 7, true, 0, 10),
+                new Op(Kind.POP, 0, 7, 0, 10),
+                new Op(Kind.TOP, 0, -1, 20, 30));
+        assertFalse(linearizable(ops, new boolean[ops.size()], ops.size(), initial, 1));
+    }
+
+
+    private enum Kind { PUSH, POP, TOP }
+
+    private record Op(Kind kind, int value, Object result, long start, long end) {}
+
+    // depth-first search over the operations that may come next: those no pending operation finished before
+    private static boolean linearizable(List<Op> ops, boolean[] done, int remaining, ArrayDeque<Integer> model, int capacity) {
+        if (remaining == 0)
+            return true;
+        for (int i = 0; i < ops.size(); i++) {
+            if (done[i] || !minimal(ops, done, i))
+                continue;
+            Op op = ops.get(i);
+            ArrayDeque<Integer> next = model.clone();
+            Object expected = switch (op.kind()) {
+                case PUSH -> {
+                    if (next.size() >= capacity)
+                        yield false;
+                    next.push(op.value());
+                    yield true;
+                }
+                case POP -> next.poll();
+                case TOP -> next.peek();
+            };
+            if (!Objects.equals(expected, op.result()))
+                continue;
+            done[i] = true;
+            if (linearizable(ops, done, remaining - 1, next, capacity))
+                return true;
+            done[i] = false;
+        }
+        return false;
+    }
+
+    private static boolean minimal(List<Op> ops, boolean[] done, int i) {
+        for (int j = 0; j < ops.size(); j++)
+            if (!done[j] && j != i && ops.get(j).end() < ops.get(i).start())
+                return false;
+        return true;
+    }
+
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        List<Throwable> failures = new ArrayList<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                    worker.run(thread);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread t : workers)
+            t.join();
+        if (!failures.isEmpty())
+            throw new AssertionError(failures.get(0));
+    }
+}
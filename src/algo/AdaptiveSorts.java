@@ -0,0 +1,114 @@
+package algo;
+
+import java.util.Comparator;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sampling behind {@link Sorts.SortingType#ADAPTIVE}. It looks at O(1) elements of the range:
+ * a few windows of neighbours for presortedness and a small sorted sample for duplicates.
+ */
+final class AdaptiveSorts {
+
+    private AdaptiveSorts() {
+        new Error("Forbidden instance of class " + AdaptiveSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private static final int RADIX_SORT_THRESHOLD = 1 << 10;
+
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 17;
+
+    private static final int RUN_WINDOWS = 16;
+
+    private static final int RUN_WINDOW_LENGTH = 32;
+
+    private static final int DUPLICATE_SAMPLE_SIZE = 128;
+
+    private static final double PRESORTED_RATIO = 0.95;
+
+    private static final double MANY_DUPLICATES_RATIO = 0.5;
+
+
+    static <T> SortPlan plan(T[] array, int start, int end, Comparator<? super T> comparator) {
+        return plan(start, end, (i, j) -> comparator.compare(array[i], array[j]), false);
+    }
+
+    static SortPlan plan(int[] array, int start, int end) {
+        return plan(start, end, (i, j) -> Integer.compare(array[i], array[j]), true);
+    }
+
+    static SortPlan plan(long[] array, int start, int end) {
+        return plan(start, end, (i, j) -> Long.compare(array[i], array[j]), true);
+    }
+
+    static SortPlan plan(double[] array, int start, int end) {
+        return plan(start, end, (i, j) -> Double.compare(array[i], array[j]), true);
+    }
+
+
+    // comparator compares the elements at two indexes of the sampled array
+    private static SortPlan plan(int start, int end, IntBinaryOperator comparator, boolean radixSortable) {
+
+        long samplingStart = System.nanoTime();
+        int size = end - start;
+
+        if (size <= INSERTION_SORT_THRESHOLD)
+            return new SortPlan(Sorts.SortingType.INSERTION_SORT, size, 0, 0, 0, System.nanoTime() - samplingStart);
+
+        // presortedness: neighbour pairs inside evenly spread windows
+        int pairs = 0, ascending = 0, descending = 0;
+        int windows = Math.min(RUN_WINDOWS, size / RUN_WINDOW_LENGTH);
+        int windowStep = size / windows;
+        for (int w = 0; w < windows; w++) {
+            int windowStart = start + w * windowStep;
+            for (int i = windowStart; i < windowStart + RUN_WINDOW_LENGTH - 1; i++) {
+                int diff = comparator.applyAsInt(i, i + 1);
+                if (diff <= 0)
+                    ++ascending;
+                else
+                    ++descending;
+                ++pairs;
+            }
+        }
+        double ascendingRatio = (double) ascending / pairs;
+        double descendingRatio = (double) descending / pairs;
+
+        // duplicates: equal neighbours in a sorted sample
+        int sampleSize = Math.min(DUPLICATE_SAMPLE_SIZE, size);
+        int[] sample = new int[sampleSize];
+        for (int k = 0; k < sampleSize; k++) {
+            int index = start + (int) ((long) k * size / sampleSize);
+            int j = k;
+            while (j > 0 && comparator.applyAsInt(index, sample[j-1]) < 0) {
+                sample[j] = sample[j-1];
+                --j;
+            }
+            sample[j] = index;
+        }
+        int equal = 0;
+        for (int k = 1; k < sampleSize; k++)
+            if (comparator.applyAsInt(sample[k-1], sample[k]) == 0)
+                ++equal;
+        double duplicateRatio = (double) equal / (sampleSize - 1);
+
+        Sorts.SortingType sortingType;
+        if (ascendingRatio >= PRESORTED_RATIO || descendingRatio >= PRESORTED_RATIO)
+            sortingType = Sorts.SortingType.TIMSORT;
+        else if (duplicateRatio >= MANY_DUPLICATES_RATIO)
+            sortingType = Sorts.SortingType.QUICK_SORT;
+        else if (size >= PARALLEL_SORT_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1)
+            sortingType = Sorts.SortingType.PARALLEL_MERGE_SORT;
+        else if (radixSortable && size >= RADIX_SORT_THRESHOLD)
+            sortingType = Sorts.SortingType.RADIX_SORT;
+        else if (radixSortable)
+            sortingType = Sorts.SortingType.QUICK_SORT;
+        else
+            sortingType = Sorts.SortingType.TIMSORT;
+
+        return new SortPlan(sortingType, size, ascendingRatio, descendingRatio, duplicateRatio,
+                System.nanoTime() - samplingStart);
+    }
+}
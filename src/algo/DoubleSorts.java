@@ -0,0 +1,510 @@
+package algo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * {@link Sorts} algorithms specialized for {@code double[]}: values are never boxed
+ * and every comparison is inlined instead of going through a {@link java.util.Comparator}.
+ */
+final class DoubleSorts {
+
+    private DoubleSorts() {
+        new Error("Forbidden instance of class " + DoubleSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final int MYSORT_MIN_LENGTH = 32;
+
+    private static final int QUICK_SORT_INSERTION_THRESHOLD = 24;
+
+    private static final int QUICK_SORT_NINTHER_THRESHOLD = 128;
+
+    private static final int MAX_MINRUN = 64;
+
+    private static final int MAX_GALLOP_COUNT = 7;
+
+    // run lengths on the timsort stack grow at least as fast as Fibonacci numbers
+    private static final int MAX_RUN_STACK_SIZE = 64;
+
+
+    // the total order of Double.compare: -0.0 < 0.0 and NaN is the greatest
+    private static boolean less(double a, double b) {
+        return Double.compare(a, b) < 0;
+    }
+
+    private static void swap(double[] array, int i, int j) {
+        double tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    private static void reverse(double[] array, int start, int end) {
+        for (int i = start, j = end - 1; i < j; i++, j--)
+            swap(array, i, j);
+    }
+
+    // first index in [left, right) with array[index] >= sample
+    private static int lowerBound(double[] array, int left, int right, double sample) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (less(array[mid], sample))
+                left = mid + 1;
+            else
+                right = mid;
+        }
+        return left;
+    }
+
+    // first index in [left, right) with array[index] > sample
+    private static int upperBound(double[] array, int left, int right, double sample) {
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (less(sample, array[mid]))
+                right = mid;
+            else
+                left = mid + 1;
+        }
+        return left;
+    }
+
+
+    static void sort(double[] array, int start, int end, Sorts.SortingType sortingType) {
+        switch (sortingType) {
+            case RADIX_SORT -> RadixSorts.sort(array, start, end);
+            case PARALLEL_MYSORT -> parallelSort(array, start, end, Sorts.DEFAULT_PARALLEL_CUTOFF, true);
+            case PARALLEL_MERGE_SORT -> parallelSort(array, start, end, Sorts.DEFAULT_PARALLEL_CUTOFF, false);
+            case MYSORT -> mySort(array, start, end);
+            case TIMSORT -> timsort(array, start, end);
+            case QUICK_SORT -> quickSort(array, start, end);
+            case HEAP_SORT -> heapSort(array, start, end);
+            case MERGE_SORT -> mergeSort(array, start, end);
+            case INSERTION_SORT -> insertionSort(array, start, end);
+            case SELECTION_SORT -> selectionSort(array, start, end);
+            case BUBBLE_SORT -> bubbleSort(array, start, end);
+            case DEFAULT, ADAPTIVE -> throw new RuntimeException();
+        }
+    }
+
+
+    static void selectionSort(double[] array, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < end; j++)
+                if (less(array[j], array[minIndex]))
+                    minIndex = j;
+            swap(array, i, minIndex);
+        }
+    }
+
+
+    static void bubbleSort(double[] array, int start, int end) {
+        for (int i = end - 1; i > start; i--)
+            for (int j = start; j < i; j++)
+                if (less(array[j+1], array[j]))
+                    swap(array, j, j + 1);
+    }
+
+
+    static void insertionSort(double[] array, int start, int end) {
+        insertionSort(array, start, start + 1, end);
+    }
+
+    // [start, sortedEnd) is already sorted
+    private static void insertionSort(double[] array, int start, int sortedEnd, int end) {
+        for (int i = Math.max(sortedEnd, start + 1); i < end; i++) {
+            double cur = array[i];
+            int j = i;
+            while (j > start && less(cur, array[j-1])) {
+                array[j] = array[j-1];
+                --j;
+            }
+            array[j] = cur;
+        }
+    }
+
+
+    static void mergeSort(double[] array, int start, int end) {
+        if (end - start <= 1)
+            return;
+        mergeSort(array, start, end, new double[(end - start) >> 1], 0);
+    }
+
+    // buffer[offset, offset + (end - start) / 2) is the scratch space of this range
+    private static void mergeSort(double[] array, int start, int end, double[] buffer, int offset) {
+        if (end - start <= 1)
+            return;
+        if (end - start == 2) {
+            if (less(array[start+1], array[start]))
+                swap(array, start, start + 1);
+            return;
+        }
+        int mid = start + ((end - start) >> 1);
+        mergeSort(array, start, mid, buffer, offset);
+        mergeSort(array, mid, end, buffer, offset);
+        merge(array, start, mid, end, buffer, offset);
+    }
+
+    static void mySort(double[] array, int start, int end) {
+        if (end - start <= MYSORT_MIN_LENGTH) {
+            insertionSort(array, start, end);
+            return;
+        }
+        mySort(array, start, end, new double[(end - start) >> 1], 0);
+    }
+
+    private static void mySort(double[] array, int start, int end, double[] buffer, int offset) {
+        if (end - start <= MYSORT_MIN_LENGTH) {
+            insertionSort(array, start, end);
+            return;
+        }
+        int mid = start + ((end - start) >> 1);
+        mySort(array, start, mid, buffer, offset);
+        mySort(array, mid, end, buffer, offset);
+        merge(array, start, mid, end, buffer, offset);
+    }
+
+    // merges [start, mid) and [mid, end) through buffer[offset, offset + mid - start)
+    private static void merge(double[] array, int start, int mid, int end, double[] buffer, int offset) {
+        if (!less(array[mid], array[mid-1]))
+            return; // already in order
+        int leftLength = mid - start;
+        System.arraycopy(array, start, buffer, offset, leftLength);
+        int index = offset, leftEnd = offset + leftLength;
+        while (index < leftEnd && mid < end)
+            if (less(array[mid], buffer[index]))
+                array[start++] = array[mid++];
+            else
+                array[start++] = buffer[index++];
+        System.arraycopy(buffer, index, array, start, leftEnd - index);
+    }
+
+
+    static void quickSort(double[] array, int start, int end) {
+        quickSort(array, start, end, 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, end - start))));
+    }
+
+    // introsort: falls back to heap sort once the recursion gets deeper than depthLimit
+    private static void quickSort(double[] array, int start, int end, int depthLimit) {
+        while (end - start > QUICK_SORT_INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(array, start, end);
+                return;
+            }
+            double pivot = array[choosePivot(array, start, end)];
+            // three-way partitioning: [start, lt) < pivot, [lt, gt) == pivot, [gt, end) > pivot
+            int lt = start, i = start, gt = end;
+            while (i < gt) {
+                if (less(array[i], pivot))
+                    swap(array, lt++, i++);
+                else if (less(pivot, array[i]))
+                    swap(array, i, --gt);
+                else
+                    ++i;
+            }
+            // recursion into the smaller part keeps the stack logarithmic
+            if (lt - start < end - gt) {
+                quickSort(array, start, lt, depthLimit);
+                start = gt;
+            } else {
+                quickSort(array, gt, end, depthLimit);
+                end = lt;
+            }
+        }
+        insertionSort(array, start, end);
+    }
+
+    private static int medianOfThree(double[] array, int a, int b, int c) {
+        if (less(array[a], array[b]))
+            return less(array[b], array[c]) ? b : less(array[a], array[c]) ? c : a;
+        return less(array[c], array[b]) ? b : less(array[c], array[a]) ? c : a;
+    }
+
+    // median of three for short ranges, Tukey's ninther for long ones
+    private static int choosePivot(double[] array, int start, int end) {
+        int length = end - start;
+        int mid = start + (length >> 1);
+        int last = end - 1;
+        if (length <= QUICK_SORT_NINTHER_THRESHOLD)
+            return medianOfThree(array, start, mid, last);
+        int step = length >> 3;
+        return medianOfThree(array,
+                medianOfThree(array, start, start + step, start + 2 * step),
+                medianOfThree(array, mid - step, mid, mid + step),
+                medianOfThree(array, last - 2 * step, last - step, last));
+    }
+
+
+    static void heapSort(double[] array, int start, int end) {
+        int size = end - start;
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+            siftDown(array, start, i, size);
+        while (size > 1) {
+            --size;
+            swap(array, start, start + size);
+            siftDown(array, start, 0, size);
+        }
+    }
+
+    // max-heap of the given size rooted at array[base]
+    private static void siftDown(double[] array, int base, int i, int size) {
+        double cur = array[base+i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && less(array[base+child], array[base+child+1]))
+                ++child;
+            if (!less(cur, array[base+child]))
+                break;
+            array[base+i] = array[base+child];
+            i = child;
+        }
+        array[base+i] = cur;
+    }
+
+
+    static void timsort(double[] array, int start, int end) {
+
+        if (end - start <= 1)
+            return;
+
+        final int minrun = calculateMinrun(end - start);
+
+        int[] runStart = new int[MAX_RUN_STACK_SIZE];
+        int[] runLength = new int[MAX_RUN_STACK_SIZE];
+        int stackSize = 0;
+        double[] buffer = null;
+
+        for (int curRunStart = start; curRunStart < end;) {
+
+            int curRunEnd = countRunAndMakeAscending(array, curRunStart, end);
+
+            if (curRunEnd - curRunStart < minrun) {
+                int forcedEnd = Math.min(curRunStart + minrun, end);
+                insertionSort(array, curRunStart, curRunEnd, forcedEnd);
+                curRunEnd = forcedEnd;
+            }
+
+            runStart[stackSize] = curRunStart;
+            runLength[stackSize] = curRunEnd - curRunStart;
+            ++stackSize;
+
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLength[n-1] <= runLength[n] + runLength[n+1]
+                        || n > 1 && runLength[n-2] <= runLength[n-1] + runLength[n]) {
+                    if (runLength[n-1] < runLength[n+1])
+                        --n;
+                } else if (runLength[n] > runLength[n+1]) {
+                    break;
+                }
+                buffer = mergeAt(array, runStart, runLength, stackSize, n, buffer);
+                --stackSize;
+            }
+
+            curRunStart = curRunEnd;
+        }
+
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLength[n-1] < runLength[n+1])
+                --n;
+            buffer = mergeAt(array, runStart, runLength, stackSize, n, buffer);
+            --stackSize;
+        }
+    }
+
+    private static int calculateMinrun(int n) {
+        int r = 0;
+        while (n >= MAX_MINRUN) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    // returns the end of the run starting at start; a strictly descending run is reversed in place
+    private static int countRunAndMakeAscending(double[] array, int start, int end) {
+        int runEnd = start + 1;
+        if (runEnd == end)
+            return end;
+        if (less(array[runEnd++], array[start])) {
+            while (runEnd < end && less(array[runEnd], array[runEnd-1]))
+                ++runEnd;
+            reverse(array, start, runEnd);
+        } else {
+            while (runEnd < end && !less(array[runEnd], array[runEnd-1]))
+                ++runEnd;
+        }
+        return runEnd;
+    }
+
+    // merges runs n and n + 1 of the stack, returns the (possibly grown) merge buffer
+    private static double[] mergeAt(double[] array, int[] runStart, int[] runLength, int stackSize, int n, double[] buffer) {
+        int start = runStart[n];
+        int mid = runStart[n+1];
+        int end = mid + runLength[n+1];
+        runLength[n] += runLength[n+1];
+        if (n == stackSize - 3) {
+            runStart[n+1] = runStart[n+2];
+            runLength[n+1] = runLength[n+2];
+        }
+        return mergeWithGallop(array, start, mid, end, buffer);
+    }
+
+    private static double[] mergeWithGallop(double[] array, int start, int mid, int end, double[] buffer) {
+
+        // elements of the left run that are already in place
+        start = upperBound(array, start, mid, array[mid]);
+        if (start == mid)
+            return buffer;
+        // elements of the right run that are already in place
+        end = lowerBound(array, mid, end, array[mid-1]);
+
+        int leftLength = mid - start;
+        if (buffer == null || buffer.length < leftLength)
+            buffer = new double[buffer == null ? leftLength : Math.max(leftLength, (int) Math.min(2L * buffer.length, array.length))];
+        System.arraycopy(array, start, buffer, 0, leftLength);
+
+        int index = 0;
+        int leftGallopCount = 0, rightGallopCount = 0;
+
+        while (index < leftLength && mid < end) {
+            if (leftGallopCount == MAX_GALLOP_COUNT) {
+                leftGallopCount = 0;
+                int maxIndex = upperBound(buffer, index, leftLength, array[mid]);
+                System.arraycopy(buffer, index, array, start, maxIndex - index);
+                start += maxIndex - index;
+                index = maxIndex;
+            } else if (rightGallopCount == MAX_GALLOP_COUNT) {
+                rightGallopCount = 0;
+                int maxIndex = lowerBound(array, mid, end, buffer[index]);
+                System.arraycopy(array, mid, array, start, maxIndex - mid);
+                start += maxIndex - mid;
+                mid = maxIndex;
+            } else if (less(array[mid], buffer[index])) {
+                array[start++] = array[mid++];
+                leftGallopCount = 0;
+                ++rightGallopCount;
+            } else {
+                array[start++] = buffer[index++];
+                ++leftGallopCount;
+                rightGallopCount = 0;
+            }
+        }
+
+        System.arraycopy(buffer, index, array, start, leftLength - index);
+        return buffer;
+    }
+
+
+    static void parallelSort(double[] array, int start, int end, int sequentialCutoff, boolean mySort) {
+        if (sequentialCutoff < 2)
+            throw new IllegalArgumentException();
+        if (end - start <= sequentialCutoff) {
+            if (mySort)
+                mySort(array, start, end);
+            else
+                mergeSort(array, start, end);
+            return;
+        }
+        double[] buffer = new double[end - start];
+        ForkJoinPool.commonPool().invoke(new ParallelSortTask(array, buffer, start, start, end, sequentialCutoff, mySort));
+    }
+
+    /**
+     * Sorts [start, end) of the array; buffer[i - base] is the scratch cell of array[i].
+     */
+    @SuppressWarnings("serial")
+    private static final class ParallelSortTask extends RecursiveAction {
+
+        private final double[] array, buffer;
+        private final int base, start, end;
+        private final int cutoff;
+        private final boolean mySort;
+
+        ParallelSortTask(double[] array, double[] buffer, int base, int start, int end, int cutoff, boolean mySort) {
+            this.array = array;
+            this.buffer = buffer;
+            this.base = base;
+            this.start = start;
+            this.end = end;
+            this.cutoff = cutoff;
+            this.mySort = mySort;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= cutoff) {
+                if (mySort)
+                    mySort(array, start, end, buffer, start - base);
+                else
+                    mergeSort(array, start, end, buffer, start - base);
+                return;
+            }
+            int mid = start + ((end - start) >> 1);
+            invokeAll(
+                    new ParallelSortTask(array, buffer, base, start, mid, cutoff, mySort),
+                    new ParallelSortTask(array, buffer, base, mid, end, cutoff, mySort));
+            if (!less(array[mid], array[mid-1]))
+                return; // already in order
+            System.arraycopy(array, start, buffer, start - base, end - start);
+            new ParallelMergeTask(array, buffer, start - base, mid - base, mid - base, end - base, start, cutoff).compute();
+        }
+    }
+
+    /**
+     * Stable merge of buffer[lo1, hi1) and buffer[lo2, hi2) into array starting at dst.
+     */
+    @SuppressWarnings("serial")
+    private static final class ParallelMergeTask extends RecursiveAction {
+
+        private final double[] array, buffer;
+        private final int lo1, hi1, lo2, hi2, dst;
+        private final int cutoff;
+
+        ParallelMergeTask(double[] array, double[] buffer, int lo1, int hi1, int lo2, int hi2, int dst, int cutoff) {
+            this.array = array;
+            this.buffer = buffer;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+            if (len1 + len2 <= cutoff || len1 == 0 || len2 == 0) {
+                int i = lo1, j = lo2, k = dst;
+                while (i < hi1 && j < hi2)
+                    array[k++] = less(buffer[j], buffer[i]) ? buffer[j++] : buffer[i++];
+                System.arraycopy(buffer, i, array, k, hi1 - i);
+                System.arraycopy(buffer, j, array, k + hi1 - i, hi2 - j);
+                return;
+            }
+            int m1, m2;
+            if (len1 >= len2) {
+                m1 = lo1 + (len1 >> 1);
+                m2 = lowerBound(buffer, lo2, hi2, buffer[m1]);
+                int dstMid = dst + (m1 - lo1) + (m2 - lo2);
+                array[dstMid] = buffer[m1];
+                invokeAll(
+                        new ParallelMergeTask(array, buffer, lo1, m1, lo2, m2, dst, cutoff),
+                        new ParallelMergeTask(array, buffer, m1 + 1, hi1, m2, hi2, dstMid + 1, cutoff));
+            } else {
+                m2 = lo2 + (len2 >> 1);
+                m1 = upperBound(buffer, lo1, hi1, buffer[m2]);
+                int dstMid = dst + (m1 - lo1) + (m2 - lo2);
+                array[dstMid] = buffer[m2];
+                invokeAll(
+                        new ParallelMergeTask(array, buffer, lo1, m1, lo2, m2, dst, cutoff),
+                        new ParallelMergeTask(array, buffer, m1, hi1, m2 + 1, hi2, dstMid + 1, cutoff));
+            }
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package algo;
+
+import containers.ArrayList;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+
+/**
+ * External merge sort for files that do not fit into the heap: fixed-width binary records or newline-delimited UTF-8 text.
+ * <p>
+ * The input is cut into runs that fit into the memory budget, every run is sorted in memory with {@link Sorts}
+ * and spilled into a temporary file through a {@link FileChannel}. The runs are then read back as
+ * {@link MappedByteBuffer} windows and k-way merged with a loser tree, in several passes if there are
+ * more runs than {@link #getMaxMergeWays()}. With a stable in-memory sorting type (the default timsort)
+ * equal records keep the order of the input.
+ * <p>
+ * A binary record is handed to the comparator as a buffer whose remaining() bytes are the record,
+ * so comparators have to read relative to position() and must not change the buffer.
+ */
+public final class ExternalSort {
+
+    private static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    private static final int DEFAULT_MAX_MERGE_WAYS = 64;
+
+    private static final int MAPPING_WINDOW = 64 << 20;
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    // heap bytes held per in-memory record or line besides its payload: the object header, view or string, array slot
+    private static final int ELEMENT_OVERHEAD = 64;
+
+
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private int runSize = 0; // records or lines per run, 0 |-> derived from the memory budget
+    private int maxMergeWays = DEFAULT_MAX_MERGE_WAYS;
+    private Path tempDirectory = Path.of(System.getProperty("java.io.tmpdir"));
+    private Sorts.SortingType sortingType = Sorts.SortingType.DEFAULT;
+
+
+    private ExternalSort() {
+    }
+
+    /**
+     * A sorter with the default memory budget, merge fan-in and sorting type, configured by the chained setters.
+     */
+    public static ExternalSort create() {
+        return new ExternalSort();
+    }
+
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Heap bytes one in-memory run may take.
+     */
+    public ExternalSort setMemoryBudget(long memoryBudget) {
+        if (memoryBudget <= 0)
+            throw new IllegalArgumentException();
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    public int getRunSize() {
+        return runSize;
+    }
+
+    /**
+     * Records or lines per run; 0 derives it from the memory budget.
+     */
+    public ExternalSort setRunSize(int runSize) {
+        if (runSize < 0)
+            throw new IllegalArgumentException();
+        this.runSize = runSize;
+        return this;
+    }
+
+    public int getMaxMergeWays() {
+        return maxMergeWays;
+    }
+
+    public ExternalSort setMaxMergeWays(int maxMergeWays) {
+        if (maxMergeWays < 2)
+            throw new IllegalArgumentException();
+        this.maxMergeWays = maxMergeWays;
+        return this;
+    }
+
+    public Path getTempDirectory() {
+        return tempDirectory;
+    }
+
+    public ExternalSort setTempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    public Sorts.SortingType getSortingType() {
+        return sortingType;
+    }
+
+    /**
+     * Algorithm for the in-memory runs, e.g. {@link Sorts.SortingType#PARALLEL_MERGE_SORT}.
+     */
+    public ExternalSort setSortingType(Sorts.SortingType sortingType) {
+        this.sortingType = sortingType;
+        return this;
+    }
+
+
+    public void sortRecords(Path input, Path output, int recordSize, Comparator<? super ByteBuffer> comparator)
+            throws IOException {
+
+        if (recordSize <= 0)
+            throw new IllegalArgumentException();
+
+        ArrayList<Path> runs = new ArrayList<>();
+        try {
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size % recordSize != 0)
+                    throw new IllegalArgumentException("file size " + size + " is not a multiple of " + recordSize);
+                long records = size / recordSize;
+                long recordsPerRun = runSize > 0 ? runSize : Math.max(1, memoryBudget / (recordSize + ELEMENT_OVERHEAD));
+                recordsPerRun = Math.min(recordsPerRun, Integer.MAX_VALUE / recordSize);
+
+                for (long first = 0; first < records; first += recordsPerRun) {
+                    int count = (int) Math.min(recordsPerRun, records - first);
+                    MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, first * recordSize, (long) count * recordSize);
+                    ByteBuffer[] views = new ByteBuffer[count];
+                    for (int i = 0; i < count; i++)
+                        views[i] = chunk.slice(i * recordSize, recordSize);
+                    Sorts.sort(views, comparator, sortingType);
+
+                    Path run = createRun(runs);
+                    try (RecordWriter writer = new RecordWriter(run, recordSize)) {
+                        for (ByteBuffer view : views)
+                            writer.write(view);
+                    }
+                }
+            }
+            mergeAll(runs, output, new RecordFormat(recordSize), comparator);
+        } finally {
+            deleteRuns(runs);
+        }
+    }
+
+    public void sortLines(Path input, Path output, Comparator<? super String> comparator) throws IOException {
+
+        ArrayList<Path> runs = new ArrayList<>();
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                ArrayList<String> lines = new ArrayList<>();
+                long bytes = 0;
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    lines.add(line);
+                    bytes += 2L * line.length() + ELEMENT_OVERHEAD;
+                    if (runSize > 0 ? lines.size() >= runSize : bytes >= memoryBudget) {
+                        spillLines(lines, comparator, runs);
+                        lines.clear();
+                        bytes = 0;
+                    }
+                }
+                if (!lines.empty())
+                    spillLines(lines, comparator, runs);
+            }
+            mergeAll(runs, output, new LineFormat(), comparator);
+        } finally {
+            deleteRuns(runs);
+        }
+    }
+
+    private void spillLines(ArrayList<String> lines, Comparator<? super String> comparator, ArrayList<Path> runs)
+            throws IOException {
+        lines.sort(comparator, sortingType);
+        Path run = createRun(runs);
+        try (LineWriter writer = new LineWriter(run)) {
+            for (int i = 0; i < lines.size(); i++)
+                writer.write(lines.get(i));
+        }
+    }
+
+
+    private Path createRun(ArrayList<Path> runs) throws IOException {
+        Path run = Files.createTempFile(tempDirectory, "run", ".tmp");
+        runs.add(run);
+        return run;
+    }
+
+    private static void deleteRuns(ArrayList<Path> runs) throws IOException {
+        for (int i = 0; i < runs.size(); i++)
+            Files.deleteIfExists(runs.get(i));
+    }
+
+    private <R> void mergeAll(ArrayList<Path> runs, Path output, Format<R> format, Comparator<? super R> comparator)
+            throws IOException {
+
+        if (runs.empty()) {
+            Files.write(output, new byte[0]);
+            return;
+        }
+
+        // earlier runs hold earlier input, merging neighbours in order keeps equal records stable
+        ArrayList<Path> level = new ArrayList<>();
+        for (int i = 0; i < runs.size(); i++)
+            level.add(runs.get(i));
+        while (level.size() > maxMergeWays) {
+            ArrayList<Path> next = new ArrayList<>();
+            for (int first = 0; first < level.size(); first += maxMergeWays) {
+                int last = Math.min(first + maxMergeWays, level.size());
+                if (last - first == 1) {
+                    next.add(level.get(first));
+                    continue;
+                }
+                Path merged = createRun(runs);
+                merge(level, first, last, merged, format, comparator);
+                for (int i = first; i < last; i++)
+                    Files.deleteIfExists(level.get(i));
+                next.add(merged);
+            }
+            level = next;
+        }
+
+        if (level.size() == 1)
+            Files.move(level.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+        else
+            merge(level, 0, level.size(), output, format, comparator);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <R> void merge(ArrayList<Path> runs, int first, int last, Path output,
+                                  Format<R> format, Comparator<? super R> comparator) throws IOException {
+        Cursor<R>[] cursors = new Cursor[last - first];
+        try {
+            for (int i = first; i < last; i++) {
+                cursors[i-first] = format.open(runs.get(i));
+                cursors[i-first].advance();
+            }
+            LoserTree<R> tree = new LoserTree<>(cursors, comparator);
+            try (Writer<R> writer = format.create(output)) {
+                for (Cursor<R> winner = tree.winner(); winner.current != null; winner = tree.next())
+                    writer.write(winner.current);
+            }
+        } finally {
+            for (Cursor<R> cursor : cursors)
+                if (cursor != null)
+                    cursor.close();
+        }
+    }
+
+
+    /**
+     * <a href="https://en.wikipedia.org/wiki/K-way_merge_algorithm#Tournament_Tree">Tournament tree of losers</a>:
+     * every internal node keeps the loser of its match, so replacing the winner replays only one leaf-to-root path.
+     * An exhausted cursor loses to everything; ties are won by the earlier run.
+     */
+    private static final class LoserTree<R> {
+
+        private final Cursor<R>[] cursors;
+        private final Comparator<? super R> comparator;
+        private final int[] tree; // tree[0] |-> winner, tree[1..k) |-> losers, leaves are the virtual nodes k..2k-1
+
+        LoserTree(Cursor<R>[] cursors, Comparator<? super R> comparator) {
+            this.cursors = cursors;
+            this.comparator = comparator;
+            int k = cursors.length;
+            tree = new int[Math.max(k, 1)];
+            int[] winners = new int[2 * k];
+            for (int i = 0; i < k; i++)
+                winners[k+i] = i;
+            for (int n = k - 1; n >= 1; n--) {
+                int left = winners[2*n], right = winners[2*n+1];
+                if (beats(left, right)) {
+                    winners[n] = left;
+                    tree[n] = right;
+                } else {
+                    winners[n] = right;
+                    tree[n] = left;
+                }
+            }
+            tree[0] = k == 1 ? 0 : winners[1];
+        }
+
+        private boolean beats(int a, int b) {
+            R first = cursors[a].current, second = cursors[b].current;
+            if (first == null)
+                return false;
+            if (second == null)
+                return true;
+            int diff = comparator.compare(first, second);
+            return diff < 0 || diff == 0 && a < b;
+        }
+
+        Cursor<R> winner() {
+            return cursors[tree[0]];
+        }
+
+        // advances the winner and replays its path
+        Cursor<R> next() throws IOException {
+            int winner = tree[0];
+            cursors[winner].advance();
+            for (int n = (winner + cursors.length) >> 1; n >= 1; n >>= 1) {
+                if (beats(tree[n], winner)) {
+                    int tmp = tree[n];
+                    tree[n] = winner;
+                    winner = tmp;
+                }
+            }
+            tree[0] = winner;
+            return cursors[winner];
+        }
+    }
+
+
+    private interface Format<R> {
+        Cursor<R> open(Path run) throws IOException;
+        Writer<R> create(Path output) throws IOException;
+    }
+
+    private abstract static class Cursor<R> implements Closeable {
+        R current; // null |-> exhausted
+        abstract void advance() throws IOException;
+    }
+
+    private interface Writer<R> extends Closeable {
+        void write(R r) throws IOException;
+    }
+
+
+    /**
+     * Read-only mapping of a window of a file that slides forward on demand.
+     */
+    private static final class MappedInput implements Closeable {
+
+        final FileChannel channel;
+        final long size;
+        MappedByteBuffer window;
+        long windowStart;
+        long position;
+
+        MappedInput(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+        }
+
+        // maps at least length bytes from position (fewer at the end of the file), returns the offset of position in the window
+        int require(long length) throws IOException {
+            length = Math.min(length, size - position);
+            if (window == null || position < windowStart || position + length > windowStart + window.limit()) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(Math.max(MAPPING_WINDOW, length), size - position));
+                windowStart = position;
+            }
+            return (int) (position - windowStart);
+        }
+
+        boolean windowReachesEnd() {
+            return windowStart + window.limit() == size;
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes through one direct buffer that is flushed into the channel when full.
+     */
+    private abstract static class ChannelWriter implements Closeable {
+
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+        ChannelWriter(Path path) throws IOException {
+            channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+
+        void ensureRemaining(int length) throws IOException {
+            if (buffer.remaining() < length)
+                flush();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+
+    private static final class RecordFormat implements Format<ByteBuffer> {
+
+        private final int recordSize;
+
+        RecordFormat(int recordSize) {
+            this.recordSize = recordSize;
+        }
+
+        @Override
+        public Cursor<ByteBuffer> open(Path run) throws IOException {
+            return new RecordCursor(run, recordSize);
+        }
+
+        @Override
+        public Writer<ByteBuffer> create(Path output) throws IOException {
+            return new RecordWriter(output, recordSize);
+        }
+    }
+
+    private static final class RecordCursor extends Cursor<ByteBuffer> {
+
+        private final MappedInput input;
+        private final int recordSize;
+        private MappedByteBuffer viewedWindow;
+        private ByteBuffer view;
+
+        RecordCursor(Path run, int recordSize) throws IOException {
+            input = new MappedInput(run);
+            this.recordSize = recordSize;
+        }
+
+        @Override
+        void advance() throws IOException {
+            if (input.position >= input.size) {
+                current = null;
+                return;
+            }
+            // require maps a new window when the record crosses the end of the current one
+            int offset = input.require(recordSize);
+            if (viewedWindow != input.window) {
+                viewedWindow = input.window;
+                view = viewedWindow.duplicate();
+            }
+            view.limit(view.capacity()).position(offset);
+            view.limit(offset + recordSize);
+            input.position += recordSize;
+            current = view;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    private static final class RecordWriter extends ChannelWriter implements Writer<ByteBuffer> {
+
+        private final int recordSize;
+
+        RecordWriter(Path path, int recordSize) throws IOException {
+            super(path);
+            this.recordSize = recordSize;
+        }
+
+        @Override
+        public void write(ByteBuffer record) throws IOException {
+            if (recordSize > buffer.capacity()) {
+                flush();
+                ByteBuffer whole = record.duplicate();
+                while (whole.hasRemaining())
+                    channel.write(whole);
+                return;
+            }
+            ensureRemaining(recordSize);
+            buffer.put(buffer.position(), record, record.position(), recordSize);
+            buffer.position(buffer.position() + recordSize);
+        }
+    }
+
+
+    private static final class LineFormat implements Format<String> {
+
+        @Override
+        public Cursor<String> open(Path run) throws IOException {
+            return new LineCursor(run);
+        }
+
+        @Override
+        public Writer<String> create(Path output) throws IOException {
+            return new LineWriter(output);
+        }
+    }
+
+    private static final class LineCursor extends Cursor<String> {
+
+        private final MappedInput input;
+        private byte[] bytes = new byte[256];
+
+        LineCursor(Path run) throws IOException {
+            input = new MappedInput(run);
+        }
+
+        @Override
+        void advance() throws IOException {
+            if (input.position >= input.size) {
+                current = null;
+                return;
+            }
+            long wanted = 1;
+            int offset, length;
+            boolean newline;
+            while (true) {
+                offset = input.require(wanted);
+                MappedByteBuffer window = input.window;
+                int end = offset;
+                while (end < window.limit() && window.get(end) != '\n')
+                    ++end;
+                newline = end < window.limit();
+                if (newline || input.windowReachesEnd()) {
+                    length = end - offset;
+                    break;
+                }
+                // the line crosses the window: map again from its start with room for all of it
+                wanted = 2L * (window.limit() - offset);
+            }
+            if (bytes.length < length)
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            input.window.get(offset, bytes, 0, length);
+            current = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            input.position += length + (newline ? 1 : 0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    private static final class LineWriter extends ChannelWriter implements Writer<String> {
+
+        LineWriter(Path path) throws IOException {
+            super(path);
+        }
+
+        @Override
+        public void write(String line) throws IOException {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            ensureRemaining(bytes.length + 1);
+            if (bytes.length + 1 > buffer.capacity()) {
+                ByteBuffer whole = ByteBuffer.wrap(bytes);
+                while (whole.hasRemaining())
+                    channel.write(whole);
+            } else {
+                buffer.put(bytes);
+            }
+            ensureRemaining(1);
+            buffer.put((byte) '\n');
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package algo;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * {@link Sorts} algorithms over an {@code int[]} of indexes compared through an {@link IntBinaryOperator},
+ * the engine behind argsort: indexes are never boxed.
+ * <p>
+ * QUICK_SORT runs introsort and HEAP_SORT heap sort; the quadratic types run insertion sort;
+ * every other type runs a stable merge sort, so equal elements keep the order of their indexes.
+ */
+final class IndexSorts {
+
+    private IndexSorts() {
+        new Error("Forbidden instance of class " + IndexSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final int INSERTION_THRESHOLD = 24;
+
+    private static final int NINTHER_THRESHOLD = 128;
+
+
+    static void sort(int[] indexes, int start, int end, IntBinaryOperator comparator, Sorts.SortingType sortingType) {
+        if (sortingType == Sorts.SortingType.DEFAULT)
+            sortingType = Sorts.SortingType.getCurrentDefault();
+        switch (sortingType) {
+            case SELECTION_SORT, BUBBLE_SORT, INSERTION_SORT -> insertionSort(indexes, start, end, comparator);
+            case QUICK_SORT -> quickSort(indexes, start, end, comparator);
+            case HEAP_SORT -> heapSort(indexes, start, end, comparator);
+            default -> mergeSort(indexes, start, end, comparator);
+        }
+    }
+
+
+    private static void swap(int[] array, int i, int j) {
+        int tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+
+    static void insertionSort(int[] array, int start, int end, IntBinaryOperator comparator) {
+        for (int i = start + 1; i < end; i++) {
+            int cur = array[i];
+            int j = i;
+            while (j > start && comparator.applyAsInt(cur, array[j-1]) < 0) {
+                array[j] = array[j-1];
+                --j;
+            }
+            array[j] = cur;
+        }
+    }
+
+
+    static void mergeSort(int[] array, int start, int end, IntBinaryOperator comparator) {
+        if (end - start <= INSERTION_THRESHOLD) {
+            insertionSort(array, start, end, comparator);
+            return;
+        }
+        mergeSort(array, start, end, new int[(end - start) >> 1], comparator);
+    }
+
+    private static void mergeSort(int[] array, int start, int end, int[] buffer, IntBinaryOperator comparator) {
+        if (end - start <= INSERTION_THRESHOLD) {
+            insertionSort(array, start, end, comparator);
+            return;
+        }
+        int mid = start + ((end - start) >> 1);
+        mergeSort(array, start, mid, buffer, comparator);
+        mergeSort(array, mid, end, buffer, comparator);
+        if (comparator.applyAsInt(array[mid], array[mid-1]) >= 0)
+            return; // already in order
+        int leftLength = mid - start;
+        System.arraycopy(array, start, buffer, 0, leftLength);
+        int index = 0;
+        while (index < leftLength && mid < end)
+            if (comparator.applyAsInt(array[mid], buffer[index]) < 0)
+                array[start++] = array[mid++];
+            else
+                array[start++] = buffer[index++];
+        System.arraycopy(buffer, index, array, start, leftLength - index);
+    }
+
+
+    static void quickSort(int[] array, int start, int end, IntBinaryOperator comparator) {
+        quickSort(array, start, end, 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, end - start))), comparator);
+    }
+
+    // introsort: falls back to heap sort once the recursion gets deeper than depthLimit
+    private static void quickSort(int[] array, int start, int end, int depthLimit, IntBinaryOperator comparator) {
+        while (end - start > INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(array, start, end, comparator);
+                return;
+            }
+            int pivot = array[choosePivot(array, start, end, comparator)];
+            // three-way partitioning: [start, lt) < pivot, [lt, gt) == pivot, [gt, end) > pivot
+            int lt = start, i = start, gt = end;
+            while (i < gt) {
+                int cmp = comparator.applyAsInt(array[i], pivot);
+                if (cmp < 0)
+                    swap(array, lt++, i++);
+                else if (cmp > 0)
+                    swap(array, i, --gt);
+                else
+                    ++i;
+            }
+            // recursion into the smaller part keeps the stack logarithmic
+            if (lt - start < end - gt) {
+                quickSort(array, start, lt, depthLimit, comparator);
+                start = gt;
+            } else {
+                quickSort(array, gt, end, depthLimit, comparator);
+                end = lt;
+            }
+        }
+        insertionSort(array, start, end, comparator);
+    }
+
+    private static int medianOfThree(int[] array, int a, int b, int c, IntBinaryOperator comparator) {
+        if (comparator.applyAsInt(array[a], array[b]) < 0)
+            return comparator.applyAsInt(array[b], array[c]) < 0 ? b : comparator.applyAsInt(array[a], array[c]) < 0 ? c : a;
+        return comparator.applyAsInt(array[c], array[b]) < 0 ? b : comparator.applyAsInt(array[c], array[a]) < 0 ? c : a;
+    }
+
+    // median of three for short ranges, Tukey's ninther for long ones
+    private static int choosePivot(int[] array, int start, int end, IntBinaryOperator comparator) {
+        int length = end - start;
+        int mid = start + (length >> 1);
+        int last = end - 1;
+        if (length <= NINTHER_THRESHOLD)
+            return medianOfThree(array, start, mid, last, comparator);
+        int step = length >> 3;
+        return medianOfThree(array,
+                medianOfThree(array, start, start + step, start + 2 * step, comparator),
+                medianOfThree(array, mid - step, mid, mid + step, comparator),
+                medianOfThree(array, last - 2 * step, last - step, last, comparator),
+                comparator);
+    }
+
+
+    static void heapSort(int[] array, int start, int end, IntBinaryOperator comparator) {
+        int size = end - start;
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+            siftDown(array, start, i, size, comparator);
+        while (size > 1) {
+            --size;
+            swap(array, start, start + size);
+            siftDown(array, start, 0, size, comparator);
+        }
+    }
+
+    // max-heap of the given size rooted at array[base]
+    private static void siftDown(int[] array, int base, int i, int size, IntBinaryOperator comparator) {
+        int cur = array[base+i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && comparator.applyAsInt(array[base+child], array[base+child+1]) < 0)
+                ++child;
+            if (comparator.applyAsInt(cur, array[base+child]) >= 0)
+                break;
+            array[base+i] = array[base+child];
+            i = child;
+        }
+        array[base+i] = cur;
+    }
+}
@@ -0,0 +1,336 @@
+package algo;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * <a href="https://en.wikipedia.org/wiki/Radix_sort">Radix sorts</a>: LSD by bytes for integer keys, MSD by chars for string keys.
+ * All of them are stable and allocate their scratch arrays once per call.
+ */
+final class RadixSorts {
+
+    private RadixSorts() {
+        new Error("Forbidden instance of class " + RadixSorts.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final int RADIX_BITS = 8;
+
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private static final int MASK = RADIX - 1;
+
+    // chars above this are not bucketed, such ranges are merge sorted instead
+    private static final int MAX_STRING_DIGIT = 0xFF;
+
+    private static final int STRING_INSERTION_THRESHOLD = 16;
+
+
+    // the sign bit is flipped so that unsigned digits give the signed order
+    private static int digit(int value, int shift) {
+        return ((value ^ Integer.MIN_VALUE) >>> shift) & MASK;
+    }
+
+    private static int digit(long value, int shift) {
+        return (int) ((value ^ Long.MIN_VALUE) >>> shift) & MASK;
+    }
+
+    // signed order of the result is the order of Double.compare
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits >= 0 ? bits : bits ^ Long.MAX_VALUE;
+    }
+
+    private static double fromSortableBits(long bits) {
+        return Double.longBitsToDouble(bits >= 0 ? bits : bits ^ Long.MAX_VALUE);
+    }
+
+
+    static void sort(int[] array, int start, int end) {
+        int length = end - start;
+        if (length <= 1)
+            return;
+        int[] src = array, dst = new int[length];
+        int srcOffset = start, dstOffset = 0;
+        int[] count = new int[RADIX + 1];
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(count, 0);
+            for (int i = srcOffset; i < srcOffset + length; i++)
+                count[digit(src[i], shift) + 1]++;
+            if (count[digit(src[srcOffset], shift) + 1] == length)
+                continue; // every value has the same digit
+            for (int r = 0; r < RADIX; r++)
+                count[r+1] += count[r];
+            for (int i = srcOffset; i < srcOffset + length; i++)
+                dst[dstOffset + count[digit(src[i], shift)]++] = src[i];
+            int[] tmp = src; src = dst; dst = tmp;
+            int tmpOffset = srcOffset; srcOffset = dstOffset; dstOffset = tmpOffset;
+        }
+        if (src != array)
+            System.arraycopy(src, srcOffset, array, start, length);
+    }
+
+    static void sort(long[] array, int start, int end) {
+        int length = end - start;
+        if (length <= 1)
+            return;
+        long[] src = array, dst = new long[length];
+        int srcOffset = start, dstOffset = 0;
+        int[] count = new int[RADIX + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(count, 0);
+            for (int i = srcOffset; i < srcOffset + length; i++)
+                count[digit(src[i], shift) + 1]++;
+            if (count[digit(src[srcOffset], shift) + 1] == length)
+                continue; // every value has the same digit
+            for (int r = 0; r < RADIX; r++)
+                count[r+1] += count[r];
+            for (int i = srcOffset; i < srcOffset + length; i++)
+                dst[dstOffset + count[digit(src[i], shift)]++] = src[i];
+            long[] tmp = src; src = dst; dst = tmp;
+            int tmpOffset = srcOffset; srcOffset = dstOffset; dstOffset = tmpOffset;
+        }
+        if (src != array)
+            System.arraycopy(src, srcOffset, array, start, length);
+    }
+
+    static void sort(double[] array, int start, int end) {
+        int length = end - start;
+        if (length <= 1)
+            return;
+        long[] keys = new long[length];
+        for (int i = 0; i < length; i++)
+            keys[i] = sortableBits(array[start+i]);
+        sort(keys, 0, length);
+        for (int i = 0; i < length; i++)
+            array[start+i] = fromSortableBits(keys[i]);
+    }
+
+
+    static <T> void sortByInt(T[] array, int start, int end, ToIntFunction<? super T> key) {
+        int length = end - start;
+        if (length <= 1)
+            return;
+        int[] srcKeys = new int[length], dstKeys = new int[length];
+        for (int i = 0; i < length; i++)
+            srcKeys[i] = key.applyAsInt(array[start+i]);
+        Object[] src = array, dst = new Object[length];
+        int srcOffset = start, dstOffset = 0;
+        int[] count = new int[RADIX + 1];
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < length; i++)
+                count[digit(srcKeys[i], shift) + 1]++;
+            if (count[digit(srcKeys[0], shift) + 1] == length)
+                continue; // every key has the same digit
+            for (int r = 0; r < RADIX; r++)
+                count[r+1] += count[r];
+            for (int i = 0; i < length; i++) {
+                int pos = count[digit(srcKeys[i], shift)]++;
+                dstKeys[pos] = srcKeys[i];
+                dst[dstOffset + pos] = src[srcOffset + i];
+            }
+            int[] tmpKeys = srcKeys; srcKeys = dstKeys; dstKeys = tmpKeys;
+            Object[] tmp = src; src = dst; dst = tmp;
+            int tmpOffset = srcOffset; srcOffset = dstOffset; dstOffset = tmpOffset;
+        }
+        if (src != array)
+            System.arraycopy(src, srcOffset, array, start, length);
+    }
+
+    static <T> void sortByLong(T[] array, int start, int end, ToLongFunction<? super T> key) {
+        int length = end - start;
+        if (length <= 1)
+            return;
+        long[] srcKeys = new long[length], dstKeys = new long[length];
+        for (int i = 0; i < length; i++)
+            srcKeys[i] = key.applyAsLong(array[start+i]);
+        Object[] src = array, dst = new Object[length];
+        int srcOffset = start, dstOffset = 0;
+        int[] count = new int[RADIX + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < length; i++)
+                count[digit(srcKeys[i], shift) + 1]++;
+            if (count[digit(srcKeys[0], shift) + 1] == length)
+                continue; // every key has the same digit
+            for (int r = 0; r < RADIX; r++)
+                count[r+1] += count[r];
+            for (int i = 0; i < length; i++) {
+                int pos = count[digit(srcKeys[i], shift)]++;
+                dstKeys[pos] = srcKeys[i];
+                dst[dstOffset + pos] = src[srcOffset + i];
+            }
+            long[] tmpKeys = srcKeys; srcKeys = dstKeys; dstKeys = tmpKeys;
+            Object[] tmp = src; src = dst; dst = tmp;
+            int tmpOffset = srcOffset; srcOffset = dstOffset; dstOffset = tmpOffset;
+        }
+        if (src != array)
+            System.arraycopy(src, srcOffset, array, start, length);
+    }
+
+
+    /**
+     * Stable permutation that sorts the keys: the keys are copied and moved together with their indexes,
+     * so no pass reads keys through the permutation.
+     */
+    static int[] argsort(long[] keys) {
+        return argsortOwned(keys.clone());
+    }
+
+    static int[] argsort(double[] keys) {
+        long[] bits = new long[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            bits[i] = sortableBits(keys[i]);
+        return argsortOwned(bits);
+    }
+
+    private static int[] argsortOwned(long[] srcKeys) {
+        int length = srcKeys.length;
+        int[] src = new int[length];
+        for (int i = 0; i < length; i++)
+            src[i] = i;
+        if (length <= 1)
+            return src;
+        long[] dstKeys = new long[length];
+        int[] dst = new int[length];
+        int[] count = new int[RADIX + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < length; i++)
+                count[digit(srcKeys[i], shift) + 1]++;
+            if (count[digit(srcKeys[0], shift) + 1] == length)
+                continue; // every key has the same digit
+            for (int r = 0; r < RADIX; r++)
+                count[r+1] += count[r];
+            for (int i = 0; i < length; i++) {
+                int pos = count[digit(srcKeys[i], shift)]++;
+                dstKeys[pos] = srcKeys[i];
+                dst[pos] = src[i];
+            }
+            long[] tmpKeys = srcKeys; srcKeys = dstKeys; dstKeys = tmpKeys;
+            int[] tmp = src; src = dst; dst = tmp;
+        }
+        return src;
+    }
+
+
+    static <T> void sortByString(T[] array, int start, int end, Function<? super T, String> key) {
+        int length = end - start;
+        if (length <= 1)
+            return;
+        Object[] items = new Object[length];
+        String[] keys = new String[length];
+        System.arraycopy(array, start, items, 0, length);
+        int maxLength = 0;
+        for (int i = 0; i < length; i++) {
+            keys[i] = key.apply(array[start+i]);
+            maxLength = Math.max(maxLength, keys[i].length());
+        }
+        // a bucket only recurses past position d when its keys have a char there, so d never exceeds maxLength
+        int[][] counts = new int[maxLength + 1][];
+        sortByString(items, keys, 0, length, 0, new Object[length], new String[length], counts);
+        System.arraycopy(items, 0, array, start, length);
+    }
+
+    // 0 for strings with no char at position d, char + 1 otherwise
+    private static int charAt(String s, int d) {
+        return d < s.length() ? s.charAt(d) + 1 : 0;
+    }
+
+    // all keys of [lo, hi) share their first d chars; counts[d] is the count array of this level, reused by its siblings
+    private static void sortByString(
+            Object[] items, String[] keys, int lo, int hi, int d, Object[] auxItems, String[] auxKeys, int[][] counts) {
+
+        if (hi - lo <= STRING_INSERTION_THRESHOLD) {
+            insertionSort(items, keys, lo, hi, d);
+            return;
+        }
+
+        int[] count = counts[d];
+        if (count == null)
+            count = counts[d] = new int[MAX_STRING_DIGIT + 3];
+        else
+            Arrays.fill(count, 0);
+        for (int i = lo; i < hi; i++) {
+            int c = charAt(keys[i], d);
+            if (c > MAX_STRING_DIGIT + 1) {
+                mergeSort(items, keys, lo, hi, d, auxItems, auxKeys);
+                return;
+            }
+            count[c+1]++;
+        }
+        for (int r = 0; r <= MAX_STRING_DIGIT + 1; r++)
+            count[r+1] += count[r];
+
+        for (int i = lo; i < hi; i++) {
+            int pos = lo + count[charAt(keys[i], d)]++;
+            auxItems[pos] = items[i];
+            auxKeys[pos] = keys[i];
+        }
+        System.arraycopy(auxItems, lo, items, lo, hi - lo);
+        System.arraycopy(auxKeys, lo, keys, lo, hi - lo);
+
+        // count[c] is the end of bucket c now; bucket 0 holds equal keys that have ended
+        for (int c = 1; c <= MAX_STRING_DIGIT + 1; c++)
+            if (count[c] - count[c-1] > 1)
+                sortByString(items, keys, lo + count[c-1], lo + count[c], d + 1, auxItems, auxKeys, counts);
+    }
+
+    private static int compare(String a, String b, int d) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = d; i < length; i++) {
+            int diff = a.charAt(i) - b.charAt(i);
+            if (diff != 0)
+                return diff;
+        }
+        return a.length() - b.length();
+    }
+
+    private static void insertionSort(Object[] items, String[] keys, int lo, int hi, int d) {
+        for (int i = lo + 1; i < hi; i++) {
+            Object item = items[i];
+            String key = keys[i];
+            int j = i;
+            while (j > lo && compare(key, keys[j-1], d) < 0) {
+                items[j] = items[j-1];
+                keys[j] = keys[j-1];
+                --j;
+            }
+            items[j] = item;
+            keys[j] = key;
+        }
+    }
+
+    private static void mergeSort(
+            Object[] items, String[] keys, int lo, int hi, int d, Object[] auxItems, String[] auxKeys) {
+        if (hi - lo <= STRING_INSERTION_THRESHOLD) {
+            insertionSort(items, keys, lo, hi, d);
+            return;
+        }
+        int mid = lo + ((hi - lo) >> 1);
+        mergeSort(items, keys, lo, mid, d, auxItems, auxKeys);
+        mergeSort(items, keys, mid, hi, d, auxItems, auxKeys);
+        if (compare(keys[mid-1], keys[mid], d) <= 0)
+            return;
+        System.arraycopy(items, lo, auxItems, lo, hi - lo);
+        System.arraycopy(keys, lo, auxKeys, lo, hi - lo);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            if (compare(auxKeys[j], auxKeys[i], d) < 0) {
+                items[k] = auxItems[j];
+                keys[k++] = auxKeys[j++];
+            } else {
+                items[k] = auxItems[i];
+                keys[k++] = auxKeys[i++];
+            }
+        }
+        System.arraycopy(auxItems, i, items, k, mid - i);
+        System.arraycopy(auxKeys, i, keys, k, mid - i);
+        System.arraycopy(auxItems, j, items, k + mid - i, hi - j);
+        System.arraycopy(auxKeys, j, keys, k + mid - i, hi - j);
+    }
+}
@@ -0,0 +1,62 @@
+package algo;
+
+import java.util.Arrays;
+
+/**
+ * Scratch memory of {@link Sorts#timsort}: the run stack and the merge buffer.
+ * Both grow on demand and are kept between calls, so a context reused for many sorts
+ * stops allocating once it has seen the largest input. A context must not be shared
+ * by sorts running at the same time.
+ */
+public final class SortContext {
+
+    // run lengths on the timsort stack grow at least as fast as Fibonacci numbers
+    static final int MAX_RUN_STACK_SIZE = 64;
+
+    private static final int DEFAULT_INITIAL_BUFFER_CAPACITY = 256;
+
+
+    final int[] runStart = new int[MAX_RUN_STACK_SIZE];
+    final int[] runLength = new int[MAX_RUN_STACK_SIZE];
+    int stackSize;
+
+    private Object[] buffer;
+    private int bufferUsed;
+
+
+    public SortContext() {
+        this(DEFAULT_INITIAL_BUFFER_CAPACITY);
+    }
+
+    public SortContext(int initialBufferCapacity) {
+        if (initialBufferCapacity < 0)
+            throw new IllegalArgumentException();
+        buffer = new Object[initialBufferCapacity];
+    }
+
+
+    Object[] buffer(int minCapacity) {
+        bufferUsed = Math.max(bufferUsed, minCapacity);
+        if (buffer.length < minCapacity)
+            buffer = new Object[Math.max(minCapacity, (int) Math.min(2L * buffer.length, Integer.MAX_VALUE - 8))];
+        return buffer;
+    }
+
+    // drops the references copied into the buffer so that sorted objects can be collected
+    void release() {
+        Arrays.fill(buffer, 0, Math.min(bufferUsed, buffer.length), null);
+        bufferUsed = 0;
+    }
+
+
+    public int bufferCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Frees the merge buffer; the context stays usable.
+     */
+    public void trim() {
+        buffer = new Object[0];
+    }
+}
@@ -0,0 +1,65 @@
+package algo;
+
+/**
+ * What {@link Sorts.SortingType#ADAPTIVE} measured on a range and which algorithm it chose.
+ */
+public final class SortPlan {
+
+    private final Sorts.SortingType sortingType;
+    private final int size;
+    private final double ascendingRatio;
+    private final double descendingRatio;
+    private final double duplicateRatio;
+    private final long samplingNanos;
+
+    SortPlan(Sorts.SortingType sortingType, int size,
+             double ascendingRatio, double descendingRatio, double duplicateRatio, long samplingNanos) {
+        this.sortingType = sortingType;
+        this.size = size;
+        this.ascendingRatio = ascendingRatio;
+        this.descendingRatio = descendingRatio;
+        this.duplicateRatio = duplicateRatio;
+        this.samplingNanos = samplingNanos;
+    }
+
+    public Sorts.SortingType getSortingType() {
+        return sortingType;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Share of sampled neighbour pairs that are already in order: 1 for a sorted range.
+     */
+    public double getAscendingRatio() {
+        return ascendingRatio;
+    }
+
+    /**
+     * Share of sampled neighbour pairs that are strictly descending: 1 for a reversed range.
+     */
+    public double getDescendingRatio() {
+        return descendingRatio;
+    }
+
+    /**
+     * Share of equal neighbours in a sorted sample of the range.
+     */
+    public double getDuplicateRatio() {
+        return duplicateRatio;
+    }
+
+    public long getSamplingNanos() {
+        return samplingNanos;
+    }
+
+
+    @Override
+    public String toString() {
+        return "{ " + sortingType + ", size " + size
+                + ", ascending " + ascendingRatio + ", descending " + descendingRatio
+                + ", duplicates " + duplicateRatio + ", sampled in " + samplingNanos + " ns }";
+    }
+}
@@ -1,9 +1,13 @@
 package algo;
 
-import containers.ArrayList;
-import containers.Pair;
-
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public final class Sorts {
 
@@ -23,9 +27,14 @@ public final class Sorts {
         QUICK_SORT,
         HEAP_SORT,
         TIMSORT,
-        MYSORT;
+        MYSORT,
+        PARALLEL_MERGE_SORT,
+        PARALLEL_MYSORT,
+        RADIX_SORT, // needs keys: for T[] sorted only by a comparator it falls back to TIMSORT
+        ADAPTIVE; // chosen per call from a sample of the range, see SortPlan
 
-        private static SortingType currentDefault = TIMSORT;
+        // volatile: a default set by one thread is seen by sorts started afterwards on any other
+        private static volatile SortingType currentDefault = TIMSORT;
 
         public static SortingType getCurrentDefault() {
             return currentDefault;
@@ -55,6 +64,10 @@ public final class Sorts {
         if (sortingType == SortingType.DEFAULT)
             sortingType = SortingType.getCurrentDefault();
         switch (sortingType) {
+            case ADAPTIVE -> adaptiveSort(array, start, end, comparator);
+            case RADIX_SORT -> timsort(array, start, end, comparator);
+            case PARALLEL_MYSORT -> parallelMySort(array, start, end, comparator);
+            case PARALLEL_MERGE_SORT -> parallelMergeSort(array, start, end, comparator);
             case MYSORT -> mySort(array, start, end, comparator);
             case TIMSORT -> timsort(array, start, end, comparator);
             case QUICK_SORT -> quickSort(array, start, end, comparator);
@@ -67,6 +80,90 @@ public final class Sorts {
         }
     }
 
+    public static void sort(int[] array) {
+        sort(array, 0, array.length, SortingType.DEFAULT);
+    }
+
+    public static void sort(int[] array, int start, int end) {
+        sort(array, start, end, SortingType.DEFAULT);
+    }
+
+    public static void sort(int[] array, SortingType sortingType) {
+        sort(array, 0, array.length, sortingType);
+    }
+
+    public static void sort(int[] array, int start, int end, SortingType sortingType) {
+        if (sortingType == SortingType.DEFAULT)
+            sortingType = SortingType.getCurrentDefault();
+        if (sortingType == SortingType.ADAPTIVE)
+            sortingType = AdaptiveSorts.plan(array, start, end).getSortingType();
+        IntSorts.sort(array, start, end, sortingType);
+    }
+
+    public static void sort(long[] array) {
+        sort(array, 0, array.length, SortingType.DEFAULT);
+    }
+
+    public static void sort(long[] array, int start, int end) {
+        sort(array, start, end, SortingType.DEFAULT);
+    }
+
+    public static void sort(long[] array, SortingType sortingType) {
+        sort(array, 0, array.length, sortingType);
+    }
+
+    public static void sort(long[] array, int start, int end, SortingType sortingType) {
+        if (sortingType == SortingType.DEFAULT)
+            sortingType = SortingType.getCurrentDefault();
+        if (sortingType == SortingType.ADAPTIVE)
+            sortingType = AdaptiveSorts.plan(array, start, end).getSortingType();
+        LongSorts.sort(array, start, end, sortingType);
+    }
+
+    public static void sort(double[] array) {
+        sort(array, 0, array.length, SortingType.DEFAULT);
+    }
+
+    public static void sort(double[] array, int start, int end) {
+        sort(array, start, end, SortingType.DEFAULT);
+    }
+
+    public static void sort(double[] array, SortingType sortingType) {
+        sort(array, 0, array.length, sortingType);
+    }
+
+    public static void sort(double[] array, int start, int end, SortingType sortingType) {
+        if (sortingType == SortingType.DEFAULT)
+            sortingType = SortingType.getCurrentDefault();
+        if (sortingType == SortingType.ADAPTIVE)
+            sortingType = AdaptiveSorts.plan(array, start, end).getSortingType();
+        DoubleSorts.sort(array, start, end, sortingType);
+    }
+
+
+    public static void selectionSort(int[] array) {
+        IntSorts.selectionSort(array, 0, array.length);
+    }
+
+    public static void selectionSort(int[] array, int start, int end) {
+        IntSorts.selectionSort(array, start, end);
+    }
+
+    public static void selectionSort(long[] array) {
+        LongSorts.selectionSort(array, 0, array.length);
+    }
+
+    public static void selectionSort(long[] array, int start, int end) {
+        LongSorts.selectionSort(array, start, end);
+    }
+
+    public static void selectionSort(double[] array) {
+        DoubleSorts.selectionSort(array, 0, array.length);
+    }
+
+    public static void selectionSort(double[] array, int start, int end) {
+        DoubleSorts.selectionSort(array, start, end);
+    }
 
     public static <T> void selectionSort(T[] array, Comparator<? super T> comparator) {
         selectionSort(array, 0, array.length, comparator);
@@ -90,6 +187,30 @@ public final class Sorts {
     }
 
 
+    public static void bubbleSort(int[] array) {
+        IntSorts.bubbleSort(array, 0, array.length);
+    }
+
+    public static void bubbleSort(int[] array, int start, int end) {
+        IntSorts.bubbleSort(array, start, end);
+    }
+
+    public static void bubbleSort(long[] array) {
+        LongSorts.bubbleSort(array, 0, array.length);
+    }
+
+    public static void bubbleSort(long[] array, int start, int end) {
+        LongSorts.bubbleSort(array, start, end);
+    }
+
+    public static void bubbleSort(double[] array) {
+        DoubleSorts.bubbleSort(array, 0, array.length);
+    }
+
+    public static void bubbleSort(double[] array, int start, int end) {
+        DoubleSorts.bubbleSort(array, start, end);
+    }
+
     public static <T> void bubbleSort(T[] array, Comparator<? super T> comparator) {
         bubbleSort(array, 0, array.length, comparator);
     }
@@ -107,12 +228,41 @@ public final class Sorts {
     }
 
 
+    public static void insertionSort(int[] array) {
+        IntSorts.insertionSort(array, 0, array.length);
+    }
+
+    public static void insertionSort(int[] array, int start, int end) {
+        IntSorts.insertionSort(array, start, end);
+    }
+
+    public static void insertionSort(long[] array) {
+        LongSorts.insertionSort(array, 0, array.length);
+    }
+
+    public static void insertionSort(long[] array, int start, int end) {
+        LongSorts.insertionSort(array, start, end);
+    }
+
+    public static void insertionSort(double[] array) {
+        DoubleSorts.insertionSort(array, 0, array.length);
+    }
+
+    public static void insertionSort(double[] array, int start, int end) {
+        DoubleSorts.insertionSort(array, start, end);
+    }
+
     public static <T> void insertionSort(T[] array, Comparator<? super T> comparator) {
         insertionSort(array, 0, array.length, comparator);
     }
 
     public static <T> void insertionSort(T[] array, int start, int end, Comparator<? super T> comparator) {
-        for (int i = start + 1; i < end; i++) {
+        insertionSort(array, start, start + 1, end, comparator);
+    }
+
+    // [start, sortedEnd) is already sorted
+    private static <T> void insertionSort(T[] array, int start, int sortedEnd, int end, Comparator<? super T> comparator) {
+        for (int i = Math.max(sortedEnd, start + 1); i < end; i++) {
             T cur = array[i];
             int indexToPaste = i;
             while (indexToPaste > start && comparator.compare(cur, array[indexToPaste-1]) < 0)
@@ -123,6 +273,30 @@ public final class Sorts {
     }
 
 
+    public static void mergeSort(int[] array) {
+        IntSorts.mergeSort(array, 0, array.length);
+    }
+
+    public static void mergeSort(int[] array, int start, int end) {
+        IntSorts.mergeSort(array, start, end);
+    }
+
+    public static void mergeSort(long[] array) {
+        LongSorts.mergeSort(array, 0, array.length);
+    }
+
+    public static void mergeSort(long[] array, int start, int end) {
+        LongSorts.mergeSort(array, start, end);
+    }
+
+    public static void mergeSort(double[] array) {
+        DoubleSorts.mergeSort(array, 0, array.length);
+    }
+
+    public static void mergeSort(double[] array, int start, int end) {
+        DoubleSorts.mergeSort(array, start, end);
+    }
+
     public static <T> void mergeSort(T[] array, Comparator<? super T> comparator) {
         mergeSort(array, 0, array.length, comparator);
     }
@@ -163,169 +337,263 @@ public final class Sorts {
             array[start++] = (T) tmpArr[index++];
     }
 
+    /**
+     * Merges [start, mid) and [mid, end) through the buffer of the context.
+     * After MAX_GALLOP_COUNT consecutive wins of one side the rest of its winning streak is found by binary search.
+     */
     @SuppressWarnings("unchecked")
     private static <T> void mergeWithGallop(
-            T[] array, int start, int mid, int end, Comparator<? super T> comparator, final int maxGallopCount) {
+            T[] array, int start, int mid, int end, Comparator<? super T> comparator, SortContext context) {
 
-        Object[] tmpArr = new Object[mid - start];
+        // elements of the left run that are already in place
+        start = binaryFindMinGreater(array, array[mid], start, mid, comparator);
+        if (start == mid)
+            return;
+        // elements of the right run that are already in place
+        end = binaryFindMinNotLess(array, array[mid-1], mid, end, comparator);
 
-        System.arraycopy(array, start, tmpArr, 0, tmpArr.length);
+        int leftLength = mid - start;
+        Object[] tmpArr = context.buffer(leftLength);
+
+        System.arraycopy(array, start, tmpArr, 0, leftLength);
 
         int index = 0;
 
-        int[] currentGallopCount = { 0, 0 };
-
-        while (start < mid && mid < end) {
-
-            if (currentGallopCount[0] == maxGallopCount || currentGallopCount[1] == maxGallopCount) {
-                if (currentGallopCount[0] == maxGallopCount) {
-                    currentGallopCount[0] = 0;
-                    int maxIndex = binaryFindMinGreater(tmpArr, array[mid], index, tmpArr.length, comparator);
-                    while (index < maxIndex)
-                        array[start++] = (T) tmpArr[index++];
-                } else {
-                    currentGallopCount[1] = 0;
-                    int maxIndex = binaryFindMinGreater(array, (T) tmpArr[index], mid, end, comparator);
-                    while (mid < maxIndex)
-                        array[start++] = array[mid++];
-                }
+        int leftGallopCount = 0, rightGallopCount = 0;
+
+        while (index < leftLength && mid < end) {
+            if (leftGallopCount == TIMSORT_MAX_GALLOP_COUNT) {
+                leftGallopCount = 0;
+                int maxIndex = binaryFindMinGreater(tmpArr, array[mid], index, leftLength, comparator);
+                System.arraycopy(tmpArr, index, array, start, maxIndex - index);
+                start += maxIndex - index;
+                index = maxIndex;
+            } else if (rightGallopCount == TIMSORT_MAX_GALLOP_COUNT) {
+                rightGallopCount = 0;
+                int maxIndex = binaryFindMinNotLess(array, (T) tmpArr[index], mid, end, comparator);
+                System.arraycopy(array, mid, array, start, maxIndex - mid);
+                start += maxIndex - mid;
+                mid = maxIndex;
+            } else if (comparator.compare((T) tmpArr[index], array[mid]) <= 0) {
+                array[start++] = (T) tmpArr[index++];
+                ++leftGallopCount;
+                rightGallopCount = 0;
             } else {
-                if (comparator.compare((T) tmpArr[index], array[mid]) <= 0) {
-                    array[start] = (T) tmpArr[index];
-                    ++index;
-                    currentGallopCount[0] += 1;
-                    currentGallopCount[1] = 0;
-                } else {
-                    array[start] = array[mid];
-                    ++mid;
-                    currentGallopCount[0] = 0;
-                    currentGallopCount[1] += 1;
-                }
-                ++start;
+                array[start++] = array[mid++];
+                leftGallopCount = 0;
+                ++rightGallopCount;
             }
         }
 
-        while (start < mid)
-            array[start++] = (T) tmpArr[index++];
+        System.arraycopy(tmpArr, index, array, start, leftLength - index);
     }
 
+    // first index in [left, right) with arr[index] > sample, right if there is none
     @SuppressWarnings("unchecked")
     private static <E, T> int binaryFindMinGreater(E[] arr, T sample, int left, int right, Comparator<? super T> comparator) {
-        if (left >= right)
-            throw new IllegalArgumentException();
-        while (right - left > 1) {
+        while (left < right) {
             int mid = left + ((right - left) >> 1);
-            int diff = comparator.compare((T) arr[mid], sample);
-            if (diff <= 0)
-                left = mid;
+            if (comparator.compare((T) arr[mid], sample) <= 0)
+                left = mid + 1;
             else
                 right = mid;
         }
-        return comparator.compare((T) arr[left], sample) > 0 ? left : right;
+        return left;
+    }
+
+    // first index in [left, right) with arr[index] >= sample, right if there is none
+    @SuppressWarnings("unchecked")
+    private static <E, T> int binaryFindMinNotLess(E[] arr, T sample, int left, int right, Comparator<? super T> comparator) {
+        while (left < right) {
+            int mid = left + ((right - left) >> 1);
+            if (comparator.compare((T) arr[mid], sample) < 0)
+                left = mid + 1;
+            else
+                right = mid;
+        }
+        return left;
     }
 
 
+    public static void quickSort(int[] array) {
+        IntSorts.quickSort(array, 0, array.length);
+    }
+
+    public static void quickSort(int[] array, int start, int end) {
+        IntSorts.quickSort(array, start, end);
+    }
+
+    public static void quickSort(long[] array) {
+        LongSorts.quickSort(array, 0, array.length);
+    }
+
+    public static void quickSort(long[] array, int start, int end) {
+        LongSorts.quickSort(array, start, end);
+    }
+
+    public static void quickSort(double[] array) {
+        DoubleSorts.quickSort(array, 0, array.length);
+    }
+
+    public static void quickSort(double[] array, int start, int end) {
+        DoubleSorts.quickSort(array, start, end);
+    }
+
     public static <T> void quickSort(T[] array, Comparator<? super T> comparator) {
         quickSort(array, 0, array.length, comparator);
     }
 
+    /**
+     * <a href="https://en.wikipedia.org/wiki/Introsort">Introsort</a>: quick sort with ninther pivots and three-way partitioning,
+     * insertion sort for short ranges and heap sort once the recursion gets too deep.
+     */
     public static <T> void quickSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        quickSort(array, start, end, comparator, 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, end - start))));
+    }
 
-        if (end - start <= 1)
-            return;
-
-        int mid = start + ((end - start) >> 1);
-
-        T pivot = array[mid];
+    private static final int QUICK_SORT_INSERTION_THRESHOLD = 24;
 
-        // swapping pivot with last
-        array[mid] =  array[end-1];
-        array[end-1] = pivot;
+    private static final int QUICK_SORT_NINTHER_THRESHOLD = 128;
 
-        int lastMin = start - 1;
-        for (int i = start; i < end - 1; i++) {
-            if (comparator.compare(array[i], pivot) < 0) {
-                ++lastMin;
-                T tmp = array[lastMin];
-                array[lastMin] = array[i];
-                array[i] = tmp;
+    private static <T> void quickSort(T[] array, int start, int end, Comparator<? super T> comparator, int depthLimit) {
+        while (end - start > QUICK_SORT_INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(array, start, end, comparator);
+                return;
+            }
+            T pivot = array[choosePivot(array, start, end, comparator)];
+            // three-way partitioning: [start, lt) < pivot, [lt, gt) == pivot, [gt, end) > pivot
+            int lt = start, i = start, gt = end;
+            while (i < gt) {
+                int diff = comparator.compare(array[i], pivot);
+                if (diff < 0)
+                    swap(array, lt++, i++);
+                else if (diff > 0)
+                    swap(array, i, --gt);
+                else
+                    ++i;
+            }
+            // recursion into the smaller part keeps the stack logarithmic
+            if (lt - start < end - gt) {
+                quickSort(array, start, lt, comparator, depthLimit);
+                start = gt;
+            } else {
+                quickSort(array, gt, end, comparator, depthLimit);
+                end = lt;
             }
         }
-        ++lastMin;
-        // swapping pivot with first greater
-        array[end-1] = array[lastMin];
-        array[lastMin] = pivot;
+        insertionSort(array, start, end, comparator);
+    }
 
-        // recursion
-        quickSort(array, start, lastMin, comparator);
-        quickSort(array, lastMin + 1, end, comparator);
+    private static <T> void swap(T[] array, int i, int j) {
+        T tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
     }
 
+    private static <T> int medianOfThree(T[] array, int a, int b, int c, Comparator<? super T> comparator) {
+        if (comparator.compare(array[a], array[b]) < 0)
+            return comparator.compare(array[b], array[c]) < 0 ? b : comparator.compare(array[a], array[c]) < 0 ? c : a;
+        return comparator.compare(array[c], array[b]) < 0 ? b : comparator.compare(array[c], array[a]) < 0 ? c : a;
+    }
 
-    public static <T> void heapSort(T[] array, Comparator<? super T> comparator) {
-        heapSort(array, 0, array.length, comparator);
+    // median of three for short ranges, Tukey's ninther for long ones
+    private static <T> int choosePivot(T[] array, int start, int end, Comparator<? super T> comparator) {
+        int length = end - start;
+        int mid = start + (length >> 1);
+        int last = end - 1;
+        if (length <= QUICK_SORT_NINTHER_THRESHOLD)
+            return medianOfThree(array, start, mid, last, comparator);
+        int step = length >> 3;
+        return medianOfThree(array,
+                medianOfThree(array, start, start + step, start + 2 * step, comparator),
+                medianOfThree(array, mid - step, mid, mid + step, comparator),
+                medianOfThree(array, last - 2 * step, last - step, last, comparator),
+                comparator);
     }
 
-    public static <T> void heapSort(T[] array, int start, int end, Comparator<? super T> comparator) {
 
-        class HeapSortClass {
+    public static void heapSort(int[] array) {
+        IntSorts.heapSort(array, 0, array.length);
+    }
 
-            int size = end - start;
+    public static void heapSort(int[] array, int start, int end) {
+        IntSorts.heapSort(array, start, end);
+    }
 
-            T get(int index) {
-                return array[start+index];
-            }
+    public static void heapSort(long[] array) {
+        LongSorts.heapSort(array, 0, array.length);
+    }
 
-            void set(int index, T t) {
-                array[start+index] = t;
-            }
+    public static void heapSort(long[] array, int start, int end) {
+        LongSorts.heapSort(array, start, end);
+    }
 
-            void correctDown(int i) {
-                int ch1 = 2 * i + 1;
-                if (ch1 >= size)
-                    return;
-                int ch2 = ch1 + 1;
-                if (ch2 == size)
-                    ch2 = ch1;
-                if (comparator.compare(get(ch1), get(i)) > 0
-                        || comparator.compare(get(ch2), get(i)) > 0) {
-                    int maxChild = comparator.compare(get(ch1), get(ch2)) > 0 ? ch1 : ch2;
-                    T tmp = get(i);
-                    set(i, get(maxChild));
-                    set(maxChild, tmp);
-                    correctDown(maxChild);
-                }
-            }
+    public static void heapSort(double[] array) {
+        DoubleSorts.heapSort(array, 0, array.length);
+    }
 
-            void correctUp(int i) {
-                if (i <= 0)
-                    return;
-                int p = (i - 1) >> 1;
-                if (comparator.compare(get(i), get(p)) > 0) {
-                    T tmp = get(i);
-                    set(i, get(p));
-                    set(p, tmp);
-                    correctUp(p);
-                }
-            }
+    public static void heapSort(double[] array, int start, int end) {
+        DoubleSorts.heapSort(array, start, end);
+    }
 
-            void sort() {
-                for (int i = size - 1; i > 0; i--)
-                    correctUp(i);
+    public static <T> void heapSort(T[] array, Comparator<? super T> comparator) {
+        heapSort(array, 0, array.length, comparator);
+    }
 
-                while (size-- > 0) {
-                    T tmp = get(0);
-                    set(0, get(size));
-                    set(size, tmp);
-                    correctDown(0);
-                }
-            }
+    public static <T> void heapSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        int size = end - start;
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+            siftDown(array, start, i, size, comparator);
+        while (size > 1) {
+            --size;
+            swap(array, start, start + size);
+            siftDown(array, start, 0, size, comparator);
         }
+    }
 
-        new HeapSortClass().sort();
+    // restores the max-heap of the given size rooted at array[base] below index i
+    private static <T> void siftDown(T[] array, int base, int i, int size, Comparator<? super T> comparator) {
+        T cur = array[base+i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && comparator.compare(array[base+child], array[base+child+1]) < 0)
+                ++child;
+            if (comparator.compare(cur, array[base+child]) >= 0)
+                break;
+            array[base+i] = array[base+child];
+            i = child;
+        }
+        array[base+i] = cur;
     }
 
 
+    public static void timsort(int[] array) {
+        IntSorts.timsort(array, 0, array.length);
+    }
+
+    public static void timsort(int[] array, int start, int end) {
+        IntSorts.timsort(array, start, end);
+    }
+
+    public static void timsort(long[] array) {
+        LongSorts.timsort(array, 0, array.length);
+    }
+
+    public static void timsort(long[] array, int start, int end) {
+        LongSorts.timsort(array, start, end);
+    }
+
+    public static void timsort(double[] array) {
+        DoubleSorts.timsort(array, 0, array.length);
+    }
+
+    public static void timsort(double[] array, int start, int end) {
+        DoubleSorts.timsort(array, start, end);
+    }
+
     /**
      * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array.
      */
@@ -336,116 +604,152 @@ public final class Sorts {
     /**
      * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> for an array from start inclusive to end exclusive: [start, end).
      */
-    @SuppressWarnings("unchecked")
     public static <T> void timsort(T[] array, int start, int end, Comparator<? super T> comparator) {
-
-        if (end - start <= 1) // (*)
+        if (end - start <= 1)
             return;
+        timsort(array, start, end, comparator, new SortContext(Math.min(end - start, 256)));
+    }
 
-        class TimsortClass {
+    /**
+     * <a href="https://en.wikipedia.org/wiki/Timsort">Timsort</a> that takes its run stack and merge buffer from the context,
+     * so a pooled context makes repeated sorts allocation-free.
+     */
+    public static <T> void timsort(T[] array, Comparator<? super T> comparator, SortContext context) {
+        timsort(array, 0, array.length, comparator, context);
+    }
 
-            final static int MAX_MINRUN = 64;
+    public static <T> void timsort(T[] array, int start, int end, Comparator<? super T> comparator, SortContext context) {
 
-            final static int MAX_GALLOP_COUNT = 7;
+        if (end - start <= 1)
+            return;
 
-            int calculateMinrun(int n) {
-                int r = 0;
-                while (n >= MAX_MINRUN) {
-                    r |= n & 1;
-                    n >>= 1;
-                }
-                return n + r;
-            }
+        try {
+            timsortRuns(array, start, end, comparator, context);
+        } finally {
+            context.release();
         }
+    }
 
-        TimsortClass timsortClass = new TimsortClass();
-
-        final int minrun = timsortClass.calculateMinrun(end - start);
-
-        ArrayList<Pair<Integer,Integer>> indexes = new ArrayList<>();
+    private static <T> void timsortRuns(T[] array, int start, int end, Comparator<? super T> comparator, SortContext context) {
 
-        for(int curRunStart = start, curRunEnd = curRunStart + 2;;) {
+        final int minrun = calculateMinrun(end - start);
 
-            // next element (curRunStart + 1) exists (*)
-            boolean increasing = comparator.compare(array[curRunStart], array[curRunStart + 1]) <= 0;
+        final int[] runStart = context.runStart;
+        final int[] runLength = context.runLength;
+        context.stackSize = 0;
 
-            Comparator<T> comp
-                    = increasing
-                    ? (Comparator<T>) comparator
-                    : (o1, o2) -> {
-                return /*minus here:*/-comparator.compare(o1, o2) + 1;
-            };
+        for (int curRunStart = start; curRunStart < end;) {
 
-            while (curRunEnd < end && comp.compare(array[curRunEnd - 1], array[curRunEnd]) <= 0)
-                ++curRunEnd;
+            int curRunEnd = countRunAndMakeAscending(array, curRunStart, end, comparator);
 
-            // 'a0 > a1 > ... > an' TO 'an <= an-1 <= ...  <= a0'
-            if (!increasing) {
-                int mid = (curRunEnd - curRunStart) >> 1;
-                for (int i = 0; i < mid; i++) {
-                    T tmp = array[curRunStart + i];
-                    array[curRunStart+i] = array[curRunEnd-i-1];
-                    array[curRunEnd-i-1] = tmp;
-                }
+            if (curRunEnd - curRunStart < minrun) {
+                int forcedEnd = Math.min(curRunStart + minrun, end);
+                insertionSort(array, curRunStart, curRunEnd, forcedEnd, comparator);
+                curRunEnd = forcedEnd;
             }
 
-            if (curRunEnd - curRunStart < minrun)
-                curRunEnd = Math.min(curRunStart + minrun, end);
-
-            // next element existing required at next iteration
-            if (curRunEnd + 1 == end) // (*) (**)
-                ++curRunEnd;
-
-            insertionSort(array, curRunStart, curRunEnd, comparator);
-
-            indexes.add(new Pair<>(curRunStart, curRunEnd - curRunStart));
-
-            while (indexes.size() >= 3) {
-                Pair<Integer,Integer> Z = indexes.getLast();
-                Pair<Integer,Integer> Y = indexes.get(indexes.size() - 2);
-                Pair<Integer,Integer> X = indexes.get(indexes.size() - 3);
-                if (Z.second <= Y.second + X.second || Y.second <= X.second) {
-                    if (Z.second > X.second) {
-                        mergeWithGallop(array, X.first, Y.first, Y.first + Y.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                        indexes.set(indexes.size() - 3, new Pair<>(X.first, X.second + Y.second));
-                        indexes.remove(indexes.size() - 2);
-                    } else {
-                        mergeWithGallop(array, Y.first, Z.first, Z.first + Z.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                        indexes.set(indexes.size() - 2, new Pair<>(Y.first, Y.second + Z.second));
-                        indexes.removeLast();
-                    }
+            runStart[context.stackSize] = curRunStart;
+            runLength[context.stackSize] = curRunEnd - curRunStart;
+            ++context.stackSize;
+
+            // restoring the invariants: X > Y + Z and Y > Z for every three top runs X, Y, Z
+            while (context.stackSize > 1) {
+                int n = context.stackSize - 2;
+                if (n > 0 && runLength[n-1] <= runLength[n] + runLength[n+1]
+                        || n > 1 && runLength[n-2] <= runLength[n-1] + runLength[n]) {
+                    if (runLength[n-1] < runLength[n+1])
+                        --n;
+                } else if (runLength[n] > runLength[n+1]) {
+                    break;
                 }
+                mergeAt(array, n, comparator, context);
             }
 
-            if (curRunEnd == end)
-                break;
-
             curRunStart = curRunEnd;
-            curRunEnd = curRunStart + 2; // <= end because (**)
         }
 
-        while (true) {
-            if (indexes.size() < 2)
-                break;
-            if (indexes.size() == 2) {
-                mergeWithGallop(array, start, indexes.getLast().first, end, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                break;
-            }
-            Pair<Integer,Integer> Z = indexes.getLast();
-            Pair<Integer,Integer> Y = indexes.get(indexes.size() - 2);
-            Pair<Integer,Integer> X = indexes.get(indexes.size() - 3);
-            if (Z.second > X.second) {
-                mergeWithGallop(array, X.first, Y.first, Y.first + Y.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                indexes.set(indexes.size() - 3, new Pair<>(X.first, X.second + Y.second));
-                indexes.remove(indexes.size() - 2);
-            } else {
-                mergeWithGallop(array, Y.first, Z.first, Z.first + Z.second, comparator, TimsortClass.MAX_GALLOP_COUNT);
-                indexes.set(indexes.size() - 2, new Pair<>(Y.first, Y.second + Z.second));
-                indexes.removeLast();
+        while (context.stackSize > 1) {
+            int n = context.stackSize - 2;
+            if (n > 0 && runLength[n-1] < runLength[n+1])
+                --n;
+            mergeAt(array, n, comparator, context);
+        }
+    }
+
+    private static final int TIMSORT_MAX_MINRUN = 64;
+
+    private static final int TIMSORT_MAX_GALLOP_COUNT = 7;
+
+    private static int calculateMinrun(int n) {
+        int r = 0;
+        while (n >= TIMSORT_MAX_MINRUN) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    // returns the end of the run starting at start; a strictly descending run is reversed in place
+    private static <T> int countRunAndMakeAscending(T[] array, int start, int end, Comparator<? super T> comparator) {
+        int runEnd = start + 1;
+        if (runEnd == end)
+            return end;
+        if (comparator.compare(array[runEnd++], array[start]) < 0) {
+            while (runEnd < end && comparator.compare(array[runEnd], array[runEnd-1]) < 0)
+                ++runEnd;
+            // 'a0 > a1 > ... > an' TO 'an < an-1 < ... < a0'
+            for (int i = start, j = runEnd - 1; i < j; i++, j--) {
+                T tmp = array[i];
+                array[i] = array[j];
+                array[j] = tmp;
             }
+        } else {
+            while (runEnd < end && comparator.compare(array[runEnd], array[runEnd-1]) >= 0)
+                ++runEnd;
         }
+        return runEnd;
+    }
+
+    // merges runs n and n + 1 of the context stack into run n
+    private static <T> void mergeAt(T[] array, int n, Comparator<? super T> comparator, SortContext context) {
+        int[] runStart = context.runStart;
+        int[] runLength = context.runLength;
+        int start = runStart[n];
+        int mid = runStart[n+1];
+        int end = mid + runLength[n+1];
+        runLength[n] += runLength[n+1];
+        if (n == context.stackSize - 3) {
+            runStart[n+1] = runStart[n+2];
+            runLength[n+1] = runLength[n+2];
+        }
+        --context.stackSize;
+        mergeWithGallop(array, start, mid, end, comparator, context);
+    }
+
+
+    public static void mySort(int[] array) {
+        IntSorts.mySort(array, 0, array.length);
+    }
+
+    public static void mySort(int[] array, int start, int end) {
+        IntSorts.mySort(array, start, end);
     }
 
+    public static void mySort(long[] array) {
+        LongSorts.mySort(array, 0, array.length);
+    }
+
+    public static void mySort(long[] array, int start, int end) {
+        LongSorts.mySort(array, start, end);
+    }
+
+    public static void mySort(double[] array) {
+        DoubleSorts.mySort(array, 0, array.length);
+    }
+
+    public static void mySort(double[] array, int start, int end) {
+        DoubleSorts.mySort(array, start, end);
+    }
 
     public static <T> void mySort(T[] array, Comparator<? super T> comparator) {
         mySort(array, 0, array.length, comparator);
@@ -465,4 +769,659 @@ public final class Sorts {
         mySort(array, mid, end, comparator);
         merge(array, start, mid, end, comparator);
     }
-}
\ No newline at end of file
+
+
+    /**
+     * Ranges not longer than this are sorted on the calling thread by parallel sorts.
+     */
+    public static final int DEFAULT_PARALLEL_CUTOFF = 1 << 13;
+
+    /**
+     * Merge sort on the common {@link ForkJoinPool}: halves are sorted as subtasks and merged in parallel.
+     */
+    public static <T> void parallelMergeSort(T[] array, Comparator<? super T> comparator) {
+        parallelMergeSort(array, 0, array.length, comparator);
+    }
+
+    public static <T> void parallelMergeSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        parallelMergeSort(array, start, end, comparator, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static <T> void parallelMergeSort(
+            T[] array, int start, int end, Comparator<? super T> comparator, int sequentialCutoff) {
+        parallelSort(array, start, end, comparator, sequentialCutoff, false);
+    }
+
+    public static void parallelMergeSort(int[] array) {
+        parallelMergeSort(array, 0, array.length);
+    }
+
+    public static void parallelMergeSort(int[] array, int start, int end) {
+        parallelMergeSort(array, start, end, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static void parallelMergeSort(int[] array, int start, int end, int sequentialCutoff) {
+        IntSorts.parallelSort(array, start, end, sequentialCutoff, false);
+    }
+
+    public static void parallelMergeSort(long[] array) {
+        parallelMergeSort(array, 0, array.length);
+    }
+
+    public static void parallelMergeSort(long[] array, int start, int end) {
+        parallelMergeSort(array, start, end, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static void parallelMergeSort(long[] array, int start, int end, int sequentialCutoff) {
+        LongSorts.parallelSort(array, start, end, sequentialCutoff, false);
+    }
+
+    public static void parallelMergeSort(double[] array) {
+        parallelMergeSort(array, 0, array.length);
+    }
+
+    public static void parallelMergeSort(double[] array, int start, int end) {
+        parallelMergeSort(array, start, end, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static void parallelMergeSort(double[] array, int start, int end, int sequentialCutoff) {
+        DoubleSorts.parallelSort(array, start, end, sequentialCutoff, false);
+    }
+
+    /**
+     * Parallel variant of {@link #mySort}: ranges under the cutoff are sorted by {@link #mySort} itself.
+     */
+    public static <T> void parallelMySort(T[] array, Comparator<? super T> comparator) {
+        parallelMySort(array, 0, array.length, comparator);
+    }
+
+    public static <T> void parallelMySort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        parallelMySort(array, start, end, comparator, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static <T> void parallelMySort(
+            T[] array, int start, int end, Comparator<? super T> comparator, int sequentialCutoff) {
+        parallelSort(array, start, end, comparator, sequentialCutoff, true);
+    }
+
+    public static void parallelMySort(int[] array) {
+        parallelMySort(array, 0, array.length);
+    }
+
+    public static void parallelMySort(int[] array, int start, int end) {
+        parallelMySort(array, start, end, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static void parallelMySort(int[] array, int start, int end, int sequentialCutoff) {
+        IntSorts.parallelSort(array, start, end, sequentialCutoff, true);
+    }
+
+    public static void parallelMySort(long[] array) {
+        parallelMySort(array, 0, array.length);
+    }
+
+    public static void parallelMySort(long[] array, int start, int end) {
+        parallelMySort(array, start, end, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static void parallelMySort(long[] array, int start, int end, int sequentialCutoff) {
+        LongSorts.parallelSort(array, start, end, sequentialCutoff, true);
+    }
+
+    public static void parallelMySort(double[] array) {
+        parallelMySort(array, 0, array.length);
+    }
+
+    public static void parallelMySort(double[] array, int start, int end) {
+        parallelMySort(array, start, end, DEFAULT_PARALLEL_CUTOFF);
+    }
+
+    public static void parallelMySort(double[] array, int start, int end, int sequentialCutoff) {
+        DoubleSorts.parallelSort(array, start, end, sequentialCutoff, true);
+    }
+
+    private static <T> void parallelSort(
+            T[] array, int start, int end, Comparator<? super T> comparator, int sequentialCutoff, boolean mySort) {
+        if (sequentialCutoff < 2)
+            throw new IllegalArgumentException();
+        if (end - start <= sequentialCutoff) {
+            if (mySort)
+                mySort(array, start, end, comparator);
+            else
+                mergeSort(array, start, end, comparator);
+            return;
+        }
+        Object[] buffer = new Object[end - start];
+        ForkJoinPool.commonPool().invoke(
+                new ParallelSortTask<>(array, buffer, start, start, end, comparator, sequentialCutoff, mySort));
+    }
+
+    /**
+     * Sorts [start, end) of the array; buffer[i - base] is the scratch cell of array[i].
+     */
+    @SuppressWarnings("serial")
+    private static final class ParallelSortTask<T> extends RecursiveAction {
+
+        private final T[] array;
+        private final Object[] buffer;
+        private final int base, start, end;
+        private final Comparator<? super T> comparator;
+        private final int cutoff;
+        private final boolean mySort;
+
+        ParallelSortTask(T[] array, Object[] buffer, int base, int start, int end,
+                         Comparator<? super T> comparator, int cutoff, boolean mySort) {
+            this.array = array;
+            this.buffer = buffer;
+            this.base = base;
+            this.start = start;
+            this.end = end;
+            this.comparator = comparator;
+            this.cutoff = cutoff;
+            this.mySort = mySort;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= cutoff) {
+                if (mySort)
+                    mySort(array, start, end, comparator);
+                else
+                    mergeSort(array, start, end, comparator);
+                return;
+            }
+            int mid = start + ((end - start) >> 1);
+            invokeAll(
+                    new ParallelSortTask<>(array, buffer, base, start, mid, comparator, cutoff, mySort),
+                    new ParallelSortTask<>(array, buffer, base, mid, end, comparator, cutoff, mySort));
+            if (comparator.compare(array[mid - 1], array[mid]) <= 0)
+                return; // already in order
+            System.arraycopy(array, start, buffer, start - base, end - start);
+            new ParallelMergeTask<>(array, buffer,
+                    start - base, mid - base, mid - base, end - base, start, comparator, cutoff).compute();
+        }
+    }
+
+    /**
+     * Stable merge of buffer[lo1, hi1) and buffer[lo2, hi2) into array starting at dst.
+     * The larger run is split at its middle, the other one at the matching binary search position,
+     * and both parts are merged as independent subtasks.
+     */
+    @SuppressWarnings("serial")
+    private static final class ParallelMergeTask<T> extends RecursiveAction {
+
+        private final T[] array;
+        private final Object[] buffer;
+        private final int lo1, hi1, lo2, hi2, dst;
+        private final Comparator<? super T> comparator;
+        private final int cutoff;
+
+        ParallelMergeTask(T[] array, Object[] buffer, int lo1, int hi1, int lo2, int hi2, int dst,
+                          Comparator<? super T> comparator, int cutoff) {
+            this.array = array;
+            this.buffer = buffer;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.comparator = comparator;
+            this.cutoff = cutoff;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void compute() {
+            int len1 = hi1 - lo1, len2 = hi2 - lo2;
+            if (len1 + len2 <= cutoff || len1 == 0 || len2 == 0) {
+                mergeSequentially();
+                return;
+            }
+            int m1, m2;
+            if (len1 >= len2) {
+                m1 = lo1 + (len1 >> 1);
+                // equal elements of the second run go after the first run's ones
+                m2 = lowerBound(lo2, hi2, (T) buffer[m1]);
+                int dstMid = dst + (m1 - lo1) + (m2 - lo2);
+                array[dstMid] = (T) buffer[m1];
+                invokeAll(
+                        new ParallelMergeTask<>(array, buffer, lo1, m1, lo2, m2, dst, comparator, cutoff),
+                        new ParallelMergeTask<>(array, buffer, m1 + 1, hi1, m2, hi2, dstMid + 1, comparator, cutoff));
+            } else {
+                m2 = lo2 + (len2 >> 1);
+                m1 = upperBound(lo1, hi1, (T) buffer[m2]);
+                int dstMid = dst + (m1 - lo1) + (m2 - lo2);
+                array[dstMid] = (T) buffer[m2];
+                invokeAll(
+                        new ParallelMergeTask<>(array, buffer, lo1, m1, lo2, m2, dst, comparator, cutoff),
+                        new ParallelMergeTask<>(array, buffer, m1, hi1, m2 + 1, hi2, dstMid + 1, comparator, cutoff));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void mergeSequentially() {
+            int i = lo1, j = lo2, k = dst;
+            while (i < hi1 && j < hi2)
+                if (comparator.compare((T) buffer[i], (T) buffer[j]) <= 0)
+                    array[k++] = (T) buffer[i++];
+                else
+                    array[k++] = (T) buffer[j++];
+            while (i < hi1)
+                array[k++] = (T) buffer[i++];
+            while (j < hi2)
+                array[k++] = (T) buffer[j++];
+        }
+
+        // first index in [left, right) with buffer[index] >= sample
+        @SuppressWarnings("unchecked")
+        private int lowerBound(int left, int right, T sample) {
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (comparator.compare((T) buffer[mid], sample) < 0)
+                    left = mid + 1;
+                else
+                    right = mid;
+            }
+            return left;
+        }
+
+        // first index in [left, right) with buffer[index] > sample
+        @SuppressWarnings("unchecked")
+        private int upperBound(int left, int right, T sample) {
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (comparator.compare((T) buffer[mid], sample) <= 0)
+                    left = mid + 1;
+                else
+                    right = mid;
+            }
+            return left;
+        }
+    }
+
+
+    public static void radixSort(int[] array) {
+        RadixSorts.sort(array, 0, array.length);
+    }
+
+    public static void radixSort(int[] array, int start, int end) {
+        RadixSorts.sort(array, start, end);
+    }
+
+    public static void radixSort(long[] array) {
+        RadixSorts.sort(array, 0, array.length);
+    }
+
+    public static void radixSort(long[] array, int start, int end) {
+        RadixSorts.sort(array, start, end);
+    }
+
+    public static void radixSort(double[] array) {
+        RadixSorts.sort(array, 0, array.length);
+    }
+
+    public static void radixSort(double[] array, int start, int end) {
+        RadixSorts.sort(array, start, end);
+    }
+
+    /**
+     * Stable LSD radix sort of an array by int keys; every key is extracted once.
+     */
+    public static <T> void radixSortByInt(T[] array, ToIntFunction<? super T> key) {
+        RadixSorts.sortByInt(array, 0, array.length, key);
+    }
+
+    public static <T> void radixSortByInt(T[] array, int start, int end, ToIntFunction<? super T> key) {
+        RadixSorts.sortByInt(array, start, end, key);
+    }
+
+    /**
+     * Stable LSD radix sort of an array by long keys; every key is extracted once.
+     */
+    public static <T> void radixSortByLong(T[] array, ToLongFunction<? super T> key) {
+        RadixSorts.sortByLong(array, 0, array.length, key);
+    }
+
+    public static <T> void radixSortByLong(T[] array, int start, int end, ToLongFunction<? super T> key) {
+        RadixSorts.sortByLong(array, start, end, key);
+    }
+
+    /**
+     * Stable MSD radix sort of an array by string keys in {@link String#compareTo} order.
+     * Made for ASCII keys: ranges with chars above 0xFF are merge sorted instead of bucketed.
+     */
+    public static <T> void radixSortByString(T[] array, Function<? super T, String> key) {
+        RadixSorts.sortByString(array, 0, array.length, key);
+    }
+
+    public static <T> void radixSortByString(T[] array, int start, int end, Function<? super T, String> key) {
+        RadixSorts.sortByString(array, start, end, key);
+    }
+
+    /**
+     * Samples the range, picks an algorithm for its shape and sorts with it.
+     * @return the measurements and the chosen algorithm
+     */
+    public static <T> SortPlan adaptiveSort(T[] array, Comparator<? super T> comparator) {
+        return adaptiveSort(array, 0, array.length, comparator);
+    }
+
+    public static <T> SortPlan adaptiveSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        SortPlan plan = AdaptiveSorts.plan(array, start, end, comparator);
+        sort(array, start, end, comparator, plan.getSortingType());
+        return plan;
+    }
+
+    public static SortPlan adaptiveSort(int[] array) {
+        return adaptiveSort(array, 0, array.length);
+    }
+
+    public static SortPlan adaptiveSort(int[] array, int start, int end) {
+        SortPlan plan = AdaptiveSorts.plan(array, start, end);
+        IntSorts.sort(array, start, end, plan.getSortingType());
+        return plan;
+    }
+
+    public static SortPlan adaptiveSort(long[] array) {
+        return adaptiveSort(array, 0, array.length);
+    }
+
+    public static SortPlan adaptiveSort(long[] array, int start, int end) {
+        SortPlan plan = AdaptiveSorts.plan(array, start, end);
+        LongSorts.sort(array, start, end, plan.getSortingType());
+        return plan;
+    }
+
+    public static SortPlan adaptiveSort(double[] array) {
+        return adaptiveSort(array, 0, array.length);
+    }
+
+    public static SortPlan adaptiveSort(double[] array, int start, int end) {
+        SortPlan plan = AdaptiveSorts.plan(array, start, end);
+        DoubleSorts.sort(array, start, end, plan.getSortingType());
+        return plan;
+    }
+
+    /**
+     * Only the sampling of {@link #adaptiveSort}: tells which algorithm ADAPTIVE would pick, the range is not changed.
+     */
+    public static <T> SortPlan planAdaptiveSort(T[] array, int start, int end, Comparator<? super T> comparator) {
+        return AdaptiveSorts.plan(array, start, end, comparator);
+    }
+
+    public static SortPlan planAdaptiveSort(int[] array, int start, int end) {
+        return AdaptiveSorts.plan(array, start, end);
+    }
+
+    public static SortPlan planAdaptiveSort(long[] array, int start, int end) {
+        return AdaptiveSorts.plan(array, start, end);
+    }
+
+    public static SortPlan planAdaptiveSort(double[] array, int start, int end) {
+        return AdaptiveSorts.plan(array, start, end);
+    }
+
+
+    /**
+     * Introselect: rearranges the array so that array[k] is the element a full sort would put there,
+     * everything before it is not greater and everything after it is not less.
+     * Takes O(n) on average, falls back to heap sort of the remaining range on adversarial inputs.
+     * @return array[k]
+     */
+    public static <T> T select(T[] array, int k, Comparator<? super T> comparator) {
+        return select(array, 0, array.length, k, comparator);
+    }
+
+    public static <T> T select(T[] array, int start, int end, int k, Comparator<? super T> comparator) {
+        if (k < start || k >= end)
+            throw new IndexOutOfBoundsException();
+        int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(end - start));
+        while (end - start > QUICK_SORT_INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(array, start, end, comparator);
+                return array[k];
+            }
+            T pivot = array[choosePivot(array, start, end, comparator)];
+            int lt = start, i = start, gt = end;
+            while (i < gt) {
+                int diff = comparator.compare(array[i], pivot);
+                if (diff < 0)
+                    swap(array, lt++, i++);
+                else if (diff > 0)
+                    swap(array, i, --gt);
+                else
+                    ++i;
+            }
+            if (k < lt)
+                end = lt;
+            else if (k >= gt)
+                start = gt;
+            else
+                return array[k]; // k is among the elements equal to the pivot
+        }
+        insertionSort(array, start, end, comparator);
+        return array[k];
+    }
+
+    /**
+     * Puts the smallest k - start elements of [start, end) into [start, k) in sorted order,
+     * the rest of the range ends up in [k, end) in no particular order. O((end - start) log (k - start)).
+     */
+    public static <T> void partialSort(T[] array, int start, int k, int end, Comparator<? super T> comparator) {
+        if (k < start || k > end)
+            throw new IndexOutOfBoundsException();
+        int size = k - start;
+        if (size == 0)
+            return;
+        // max-heap of the smallest elements seen so far
+        for (int i = (size >> 1) - 1; i >= 0; i--)
+            siftDown(array, start, i, size, comparator);
+        for (int i = k; i < end; i++) {
+            if (comparator.compare(array[i], array[start]) < 0) {
+                swap(array, i, start);
+                siftDown(array, start, 0, size, comparator);
+            }
+        }
+        while (size > 1) {
+            --size;
+            swap(array, start, start + size);
+            siftDown(array, start, 0, size, comparator);
+        }
+    }
+
+    /**
+     * The k smallest elements of the array in sorted order, the array itself is not changed.
+     * Keeps a bounded heap of k elements: O(n log k) time and O(k) memory.
+     */
+    public static <T> T[] topK(T[] array, int k, Comparator<? super T> comparator) {
+        return topK(array, 0, array.length, k, comparator);
+    }
+
+    public static <T> T[] topK(T[] array, int start, int end, int k, Comparator<? super T> comparator) {
+        if (k < 0)
+            throw new IllegalArgumentException();
+        k = Math.min(k, end - start);
+        T[] heap = Arrays.copyOfRange(array, start, start + k);
+        for (int i = (k >> 1) - 1; i >= 0; i--)
+            siftDown(heap, 0, i, k, comparator);
+        for (int i = start + k; i < end; i++) {
+            if (k > 0 && comparator.compare(array[i], heap[0]) < 0) {
+                heap[0] = array[i];
+                siftDown(heap, 0, 0, k, comparator);
+            }
+        }
+        for (int size = k; size > 1;) {
+            --size;
+            swap(heap, 0, size);
+            siftDown(heap, 0, 0, size, comparator);
+        }
+        return heap;
+    }
+
+
+    /**
+     * The permutation that sorts the array: array[p[0]], array[p[1]], ... is sorted. The array is not changed.
+     * An int[] of indexes is sorted directly, see {@link IndexSorts} for how each type is run;
+     * for stable types equal elements keep the order of their indexes.
+     */
+    public static <T> int[] argsort(T[] array, Comparator<? super T> comparator) {
+        return argsort(array, comparator, SortingType.DEFAULT);
+    }
+
+    public static <T> int[] argsort(T[] array, Comparator<? super T> comparator, SortingType sortingType) {
+        return argsort(0, array.length, (i, j) -> comparator.compare(array[i], array[j]), sortingType);
+    }
+
+    /**
+     * Every key is packed with its index into one long, so the permutation is stable for any type.
+     */
+    public static int[] argsort(int[] keys) {
+        return argsort(keys, SortingType.DEFAULT);
+    }
+
+    public static int[] argsort(int[] keys, SortingType sortingType) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            packed[i] = (long) keys[i] << 32 | i;
+        sort(packed, sortingType);
+        int[] permutation = new int[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            permutation[i] = (int) packed[i];
+        return permutation;
+    }
+
+    public static int[] argsort(long[] keys) {
+        return argsort(keys, SortingType.DEFAULT);
+    }
+
+    public static int[] argsort(long[] keys, SortingType sortingType) {
+        if (sortingType == SortingType.RADIX_SORT)
+            return RadixSorts.argsort(keys);
+        return argsort(0, keys.length, (i, j) -> Long.compare(keys[i], keys[j]), sortingType);
+    }
+
+    public static int[] argsort(double[] keys) {
+        return argsort(keys, SortingType.DEFAULT);
+    }
+
+    public static int[] argsort(double[] keys, SortingType sortingType) {
+        if (sortingType == SortingType.RADIX_SORT)
+            return RadixSorts.argsort(keys);
+        return argsort(0, keys.length, (i, j) -> Double.compare(keys[i], keys[j]), sortingType);
+    }
+
+    /**
+     * Argsort of a sequence that is only reachable by index, e.g. records outside the heap:
+     * p[k] is the index in [start, end) of the k-th smallest element.
+     */
+    public static int[] argsort(int start, int end, IntBinaryOperator indexComparator, SortingType sortingType) {
+        if (start > end)
+            throw new IllegalArgumentException();
+        int[] permutation = new int[end - start];
+        for (int k = 0; k < permutation.length; k++)
+            permutation[k] = start + k;
+        IndexSorts.sort(permutation, 0, permutation.length, indexComparator, sortingType);
+        return permutation;
+    }
+
+
+    /**
+     * Reorders the column in place so that column[i] becomes the old column[permutation[i]].
+     * Follows the cycles of the permutation, marking visited entries by complementing them;
+     * the permutation is restored before returning, so it must not be shared with a concurrent call.
+     */
+    public static void applyPermutation(int[] permutation, Object[] column) {
+        checkPermutation(permutation, column.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0)
+                continue;
+            Object first = column[start];
+            int cur = start;
+            while (permutation[cur] != start) {
+                int next = permutation[cur];
+                column[cur] = column[next];
+                permutation[cur] = ~next;
+                cur = next;
+            }
+            column[cur] = first;
+            permutation[cur] = ~start;
+        }
+        restorePermutation(permutation);
+    }
+
+    public static void applyPermutation(int[] permutation, int[] column) {
+        checkPermutation(permutation, column.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0)
+                continue;
+            int first = column[start];
+            int cur = start;
+            while (permutation[cur] != start) {
+                int next = permutation[cur];
+                column[cur] = column[next];
+                permutation[cur] = ~next;
+                cur = next;
+            }
+            column[cur] = first;
+            permutation[cur] = ~start;
+        }
+        restorePermutation(permutation);
+    }
+
+    public static void applyPermutation(int[] permutation, long[] column) {
+        checkPermutation(permutation, column.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0)
+                continue;
+            long first = column[start];
+            int cur = start;
+            while (permutation[cur] != start) {
+                int next = permutation[cur];
+                column[cur] = column[next];
+                permutation[cur] = ~next;
+                cur = next;
+            }
+            column[cur] = first;
+            permutation[cur] = ~start;
+        }
+        restorePermutation(permutation);
+    }
+
+    public static void applyPermutation(int[] permutation, double[] column) {
+        checkPermutation(permutation, column.length);
+        for (int start = 0; start < permutation.length; start++) {
+            if (permutation[start] < 0)
+                continue;
+            double first = column[start];
+            int cur = start;
+            while (permutation[cur] != start) {
+                int next = permutation[cur];
+                column[cur] = column[next];
+                permutation[cur] = ~next;
+                cur = next;
+            }
+            column[cur] = first;
+            permutation[cur] = ~start;
+        }
+        restorePermutation(permutation);
+    }
+
+    // validates before anything is moved, so a bad permutation leaves both arrays untouched
+    private static void checkPermutation(int[] permutation, int length) {
+        if (permutation.length != length)
+            throw new IllegalArgumentException("permutation of " + permutation.length + " for a column of " + length);
+        long[] seen = new long[(length + 63) >>> 6];
+        for (int p : permutation) {
+            if (p < 0 || p >= length)
+                throw new IllegalArgumentException("index " + p + " out of range for a column of " + length);
+            if ((seen[p >>> 6] & 1L << p) != 0)
+                throw new IllegalArgumentException("index " + p + " repeats in the permutation");
+            seen[p >>> 6] |= 1L << p;
+        }
+    }
+
+    private static void restorePermutation(int[] permutation) {
+        for (int i = 0; i < permutation.length; i++)
+            permutation[i] = ~permutation[i];
+    }
+}
@@ -0,0 +1,248 @@
+package containers;
+
+import algo.Sorts;
+
+import java.util.Comparator;
+
+/**
+ * Circular-buffer list: O(1) add/remove at both ends and O(1) indexed access.
+ * Capacity is a power of two, so a physical index is (head + index) & mask.
+ */
+public class ArrayDeque<T> implements List<T> {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+
+    private Object[] arr;
+    private int head = 0;
+    private int size = 0;
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private int physical(int index) {
+        return (head + index) & (arr.length - 1);
+    }
+
+    private static int roundCapacity(int capacity) {
+        if (capacity > MAX_CAPACITY)
+            throw new IllegalArgumentException();
+        return Math.max(2, Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1));
+    }
+
+    private void ensureCapacity() {
+        ensureCapacity(size + 1);
+    }
+
+    // PUBLIC
+    public void ensureCapacity(int minCapacity) {
+        if (capacity() >= minCapacity)
+            return;
+        setCapacity(roundCapacity(minCapacity));
+    }
+
+    // unwraps the elements to the start of the new array
+    private void setCapacity(int newCapacity) {
+        if (newCapacity < size)
+            throw new IllegalArgumentException();
+        Object[] newArr = new Object[newCapacity];
+        if (arr != null)
+            copyTo(newArr);
+        arr = newArr;
+        head = 0;
+    }
+
+    private void copyTo(Object[] dest) {
+        int firstPart = Math.min(size, arr.length - head);
+        System.arraycopy(arr, head, dest, 0, firstPart);
+        System.arraycopy(arr, 0, dest, firstPart, size - firstPart);
+    }
+
+
+    public ArrayDeque() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public ArrayDeque(int initialCapacity) {
+        setCapacity(roundCapacity(initialCapacity));
+    }
+
+    public ArrayDeque(T[] objs) {
+        setData(objs);
+    }
+
+
+    @Override
+    public void add(T t) {
+        ensureCapacity();
+        arr[physical(size)] = t;
+        size++;
+    }
+
+    @Override
+    public void addFirst(T t) {
+        ensureCapacity();
+        head = (head - 1) & (arr.length - 1);
+        arr[head] = t;
+        size++;
+    }
+
+    @Override
+    public void set(int index, T t) {
+        checkIndex(index);
+        arr[physical(index)] = t;
+    }
+
+    // shifts the shorter side by one element
+    @Override
+    public void insert(int index, T t) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        if (index == 0) {
+            addFirst(t);
+            return;
+        }
+        ensureCapacity();
+        int mask = arr.length - 1;
+        if (index < size / 2) {
+            head = (head - 1) & mask;
+            for (int i = 0; i < index; i++)
+                arr[(head + i) & mask] = arr[(head + i + 1) & mask];
+        } else {
+            for (int i = size; i > index; i--)
+                arr[(head + i) & mask] = arr[(head + i - 1) & mask];
+        }
+        arr[(head + index) & mask] = t;
+        size++;
+    }
+
+    @Override
+    public void remove(int index) {
+        checkIndex(index);
+        int mask = arr.length - 1;
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--)
+                arr[(head + i) & mask] = arr[(head + i - 1) & mask];
+            arr[head] = null;
+            head = (head + 1) & mask;
+        } else {
+            for (int i = index; i < size - 1; i++)
+                arr[(head + i) & mask] = arr[(head + i + 1) & mask];
+            arr[(head + size - 1) & mask] = null;
+        }
+        size--;
+    }
+
+    @Override
+    public void removeFirst() {
+        checkIndex(0);
+        arr[head] = null;
+        head = (head + 1) & (arr.length - 1);
+        size--;
+    }
+
+    @Override
+    public void removeLast() {
+        checkIndex(0);
+        arr[physical(size - 1)] = null;
+        size--;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) arr[physical(index)];
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            arr[physical(i)] = null;
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return arr.length;
+    }
+
+
+    // stack and queue aliases
+    public void push(T t) {
+        addFirst(t);
+    }
+
+    public T pop() {
+        return popFirst();
+    }
+
+    public T peek() {
+        return getFirst();
+    }
+
+    public void offer(T t) {
+        add(t);
+    }
+
+    public T poll() {
+        return empty() ? null : popFirst();
+    }
+
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void sort(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        if (head + end > arr.length)
+            setCapacity(arr.length); // unwrap so the range is contiguous
+        Sorts.sort(arr, head + start, head + end, (Comparator) comparator, sortingType);
+    }
+
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        copyTo(array);
+        return array;
+    }
+
+    @Override
+    public final void setData(Object[] objs) {
+        arr = new Object[roundCapacity(objs.length)];
+        System.arraycopy(objs, 0, arr, 0, objs.length);
+        head = 0;
+        size = objs.length;
+    }
+
+
+    public void minimizeCapacity() {
+        setCapacity(roundCapacity(size));
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(get(i).toString());
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
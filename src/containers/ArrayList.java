@@ -3,6 +3,8 @@ package containers;
 import algo.Sorts;
 
 import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Predicate;
 
 public class ArrayList<T> implements List<T> {
 
@@ -88,6 +90,28 @@ public class ArrayList<T> implements List<T> {
         size++;
     }
 
+    @Override
+    public void insertAll(int index, List<? extends T> other) {
+        if (other instanceof ArrayList<? extends T> list && list != this)
+            insertAll(index, list.arr, list.size);
+        else
+            insertAll(index, other.toArray());
+    }
+
+    @Override
+    public void insertAll(int index, Object[] objs) {
+        insertAll(index, objs, objs.length);
+    }
+
+    private void insertAll(int index, Object[] objs, int count) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity(size + count);
+        System.arraycopy(arr, index, arr, index + count, size - index);
+        System.arraycopy(objs, 0, arr, index, count);
+        size += count;
+    }
+
     @Override
     public void remove(int index) {
         checkIndex(index);
@@ -96,6 +120,32 @@ public class ArrayList<T> implements List<T> {
         size--;
     }
 
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        System.arraycopy(arr, to, arr, from, size - to);
+        for (int i = size - (to - from); i < size; i++)
+            arr[i] = null;
+        size -= to - from;
+    }
+
+    // one pass: kept elements are compacted to the front
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if (!filter.test((T) arr[i]))
+                arr[kept++] = arr[i];
+        if (kept == size)
+            return false;
+        for (int i = kept; i < size; i++)
+            arr[i] = null;
+        size = kept;
+        return true;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public T get(int index) {
@@ -103,6 +153,11 @@ public class ArrayList<T> implements List<T> {
         return (T) arr[index];
     }
 
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ListSpliterators.ArraySpliterator<>(arr, 0, size);
+    }
+
     @Override
     public void clear() {
         for (int i = 0; i < size; i++)
@@ -149,7 +204,7 @@ public class ArrayList<T> implements List<T> {
 
     public void resize(int size) {
         if (size < size()) {
-            do removeLast(); while (size < size());
+            removeRange(size, size());
         } else {
             ensureCapacity(size);
             this.size = size;
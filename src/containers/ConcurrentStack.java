@@ -0,0 +1,129 @@
+package containers;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free LIFO stack (Treiber stack) for many producers and consumers.
+ * <p>
+ * push and pop linearize at a successful CAS of the top node. When that CAS fails under contention the thread
+ * backs off into an elimination array, where a concurrent push and pop can meet and cancel out without touching
+ * the top at all. The stack may be bounded: a push onto a full stack fails instead of blocking. A bounded stack
+ * does not eliminate, since a handed-over push would bypass the capacity check that the top CAS makes exact.
+ */
+public class ConcurrentStack<T> {
+
+
+    private static final int ELIMINATION_SPINS = 64;
+    private static final int MAX_ELIMINATION_SLOTS = 16;
+
+
+    private static class Node<T> {
+        final T data;
+        Node<T> next;
+        int depth; // number of nodes from this one to the bottom, gives size and the bound in O(1)
+        Node(T t) { data = t; }
+    }
+
+
+    private final AtomicReference<Node<T>> top = new AtomicReference<>();
+    private final AtomicReferenceArray<Node<T>> eliminationSlots; // null when bounded
+    private final int capacity;
+
+
+    public ConcurrentStack() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public ConcurrentStack(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException();
+        this.capacity = capacity;
+        int slots = Math.min(MAX_ELIMINATION_SLOTS, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        eliminationSlots = capacity == Integer.MAX_VALUE ? new AtomicReferenceArray<>(slots) : null;
+    }
+
+
+    /**
+     * Returns false if the stack is bounded and full.
+     */
+    public boolean push(T t) {
+        Node<T> node = new Node<>(t);
+        while (true) {
+            Node<T> head = top.get();
+            if (head != null && head.depth >= capacity)
+                return false;
+            node.next = head;
+            node.depth = head == null ? 1 : head.depth + 1;
+            if (top.compareAndSet(head, node))
+                return true;
+            if (eliminationSlots != null && eliminatePush(node)) // handed straight to a pop, the size never changed
+                return true;
+        }
+    }
+
+    /**
+     * Returns null if the stack is empty.
+     */
+    public T pop() {
+        while (true) {
+            Node<T> head = top.get();
+            if (head == null)
+                return null;
+            if (top.compareAndSet(head, head.next))
+                return head.data;
+            Node<T> node = eliminationSlots == null ? null : eliminatePop();
+            if (node != null)
+                return node.data;
+        }
+    }
+
+    /**
+     * Returns null if the stack is empty.
+     */
+    public T top() {
+        Node<T> head = top.get();
+        return head == null ? null : head.data;
+    }
+
+
+    // offers the node in a random slot and waits a little for a pop to take it
+    private boolean eliminatePush(Node<T> node) {
+        int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length());
+        if (!eliminationSlots.compareAndSet(slot, null, node))
+            return false;
+        for (int i = 0; i < ELIMINATION_SPINS; i++) {
+            if (eliminationSlots.get(slot) != node)
+                return true;
+            Thread.onSpinWait();
+        }
+        return !eliminationSlots.compareAndSet(slot, node, null); // failing to withdraw means it was taken
+    }
+
+    private Node<T> eliminatePop() {
+        int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length());
+        Node<T> node = eliminationSlots.get(slot);
+        if (node != null && eliminationSlots.compareAndSet(slot, node, null))
+            return node;
+        return null;
+    }
+
+
+    public void clear() {
+        top.set(null);
+    }
+
+    public int size() {
+        Node<T> head = top.get();
+        return head == null ? 0 : head.depth;
+    }
+
+    public boolean empty() {
+        return top.get() == null;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -1,7 +1,12 @@
 package containers;
 
+import algo.Sorts;
+
+import java.util.Comparator;
 import java.util.Objects;
+import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class ForwardList<T> implements List<T> {
 
@@ -55,6 +60,25 @@ public class ForwardList<T> implements List<T> {
         size++;
     }
 
+    // builds the chain first and splices it in with one relink
+    @Override
+    @SuppressWarnings("unchecked")
+    public void insertAll(int index, Object[] objs) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException();
+        if (objs.length == 0)
+            return;
+        Node<T> prev = index == 0 ? null : findNode(index - 1);
+        Node<T> chain = new Node<>(prev == null ? head : prev.next, (T) objs[objs.length - 1]);
+        for (int i = objs.length - 2; i >= 0; i--)
+            chain = new Node<>(chain, (T) objs[i]);
+        if (prev == null)
+            head = chain;
+        else
+            prev.next = chain;
+        size += objs.length;
+    }
+
     @Override
     public void remove(int index) {
         if (size == 0)
@@ -68,6 +92,41 @@ public class ForwardList<T> implements List<T> {
         size--;
     }
 
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        if (from == to)
+            return;
+        Node<T> prev = from == 0 ? null : findNode(from - 1);
+        Node<T> after = prev == null ? head : prev.next;
+        for (int i = from; i < to; i++)
+            after = after.next;
+        if (prev == null)
+            head = after;
+        else
+            prev.next = after;
+        size -= to - from;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int oldSize = size;
+        while (head != null && filter.test(head.data)) {
+            head = head.next;
+            size--;
+        }
+        for (Node<T> cur = head; cur != null && cur.next != null;) {
+            if (filter.test(cur.next.data)) {
+                cur.next = cur.next.next;
+                size--;
+            } else {
+                cur = cur.next;
+            }
+        }
+        return size != oldSize;
+    }
+
     @Override
     public T get(int index) {
         return findNode(index).data;
@@ -87,6 +146,11 @@ public class ForwardList<T> implements List<T> {
             action.accept(cur.data);
     }
 
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ListSpliterators.ForwardListSpliterator<>(head, size);
+    }
+
     @Override
     public void clear() {
         head = null;
@@ -99,6 +163,117 @@ public class ForwardList<T> implements List<T> {
     }
 
 
+    /**
+     * Sorts by relinking the existing nodes: merge-based types run a stable bottom-up merge sort and
+     * INSERTION_SORT a stable insertion sort, both with O(1) extra memory and no node allocation.
+     * The other types sort the data through an array and write it back into the same nodes.
+     */
+    @Override
+    public void sort(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        if (end - start < 2)
+            return;
+        if (sortingType == Sorts.SortingType.DEFAULT)
+            sortingType = Sorts.SortingType.getCurrentDefault();
+        Node<T> prev = start == 0 ? null : findNode(start - 1);
+        Node<T> first = prev == null ? head : prev.next;
+        Node<T> sorted = switch (sortingType) {
+            case MERGE_SORT, PARALLEL_MERGE_SORT, TIMSORT, ADAPTIVE -> mergeSort(first, end - start, comparator);
+            case INSERTION_SORT -> insertionSort(first, end - start, comparator);
+            default -> arraySort(first, end - start, comparator, sortingType);
+        };
+        if (prev == null)
+            head = sorted;
+        else
+            prev.next = sorted;
+    }
+
+    // the n nodes from first are sorted and the last of them is linked to whatever followed the range
+    private static <T> Node<T> mergeSort(Node<T> first, int n, Comparator<? super T> comparator) {
+        for (int width = 1; width < n; width *= 2) {
+            Node<T> newFirst = null, tail = null;
+            Node<T> cur = first;
+            for (int remaining = n; remaining > 0;) {
+                int leftLength = Math.min(width, remaining);
+                int rightLength = Math.min(width, remaining - leftLength);
+                remaining -= leftLength + rightLength;
+                Node<T> left = cur, right = cur;
+                for (int i = 0; i < leftLength; i++)
+                    right = right.next;
+                // merge by counts, so the runs never need to be cut
+                while (leftLength > 0 && rightLength > 0) {
+                    Node<T> next;
+                    if (comparator.compare(right.data, left.data) < 0) {
+                        next = right;
+                        right = right.next;
+                        rightLength--;
+                    } else {
+                        next = left;
+                        left = left.next;
+                        leftLength--;
+                    }
+                    if (tail == null)
+                        newFirst = next;
+                    else
+                        tail.next = next;
+                    tail = next;
+                }
+                Node<T> rest = leftLength > 0 ? left : right;
+                int restLength = Math.max(leftLength, rightLength);
+                if (tail == null)
+                    newFirst = rest;
+                else
+                    tail.next = rest;
+                for (int i = 0; i < restLength; i++) {
+                    tail = rest;
+                    rest = rest.next;
+                }
+                cur = leftLength > 0 ? right : rest; // first node after both runs
+            }
+            tail.next = cur;
+            first = newFirst;
+        }
+        return first;
+    }
+
+    private static <T> Node<T> insertionSort(Node<T> first, int n, Comparator<? super T> comparator) {
+        Node<T> sortedTail = first;
+        for (int i = 1; i < n; i++) {
+            Node<T> node = sortedTail.next;
+            if (comparator.compare(node.data, sortedTail.data) >= 0) {
+                sortedTail = node;
+                continue;
+            }
+            sortedTail.next = node.next;
+            if (comparator.compare(node.data, first.data) < 0) {
+                node.next = first;
+                first = node;
+            } else {
+                Node<T> prev = first; // last node not greater than node, keeps equal elements in order
+                while (comparator.compare(node.data, prev.next.data) >= 0)
+                    prev = prev.next;
+                node.next = prev.next;
+                prev.next = node;
+            }
+        }
+        return first;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Node<T> arraySort(Node<T> first, int n, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        Object[] array = new Object[n];
+        Node<T> cur = first;
+        for (int i = 0; i < n; i++, cur = cur.next)
+            array[i] = cur.data;
+        Sorts.sort(array, (Comparator) comparator, sortingType);
+        cur = first;
+        for (int i = 0; i < n; i++, cur = cur.next)
+            cur.data = (T) array[i];
+        return first;
+    }
+
+
     @Override
     public Object[] toArray() {
         Object[] array = new Object[size];
@@ -115,6 +290,7 @@ public class ForwardList<T> implements List<T> {
     @Override
     @SuppressWarnings("unchecked")
     public final void setData(Object[] objs) {
+        clear();
         for (int i = objs.length - 1; i >= 0; i--)
             addFirst((T) objs[i]);
     }
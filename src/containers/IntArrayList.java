@@ -0,0 +1,223 @@
+package containers;
+
+import algo.Sorts;
+
+import java.util.function.IntConsumer;
+
+/**
+ * {@link ArrayList} of unboxed {@code int} values: one int per element instead of a reference to a boxed object.
+ * Mirrors the {@link List} API with primitive signatures.
+ */
+public class IntArrayList {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private int[] arr;
+    private int size = 0;
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private void ensureCapacity() {
+        ensureCapacity(size + 1);
+    }
+
+    // PUBLIC
+    public void ensureCapacity(int minCapacity) {
+        if (capacity() >= minCapacity)
+            return;
+        setCapacity(Math.max((int) (capacity() * CAPACITY_MULTIPLIER), minCapacity));
+    }
+
+    private void setCapacity(int newCapacity) {
+        if (newCapacity < size)
+            throw new IllegalArgumentException();
+        if (newCapacity == capacity())
+            return;
+        int[] newArr = new int[newCapacity];
+        System.arraycopy(arr, 0, newArr, 0, size);
+        arr = newArr;
+    }
+
+
+    public IntArrayList() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public IntArrayList(int initialCapacity) {
+        arr = new int[initialCapacity];
+    }
+
+    public IntArrayList(int[] values) {
+        setData(values);
+    }
+
+    public IntArrayList(IntArrayList other) {
+        arr = new int[other.size];
+        System.arraycopy(other.arr, 0, arr, 0, other.size);
+        size = other.size;
+    }
+
+
+    public void add(int t) {
+        ensureCapacity();
+        arr[size] = t;
+        size++;
+    }
+
+    public void addFirst(int t) {
+        insert(0, t);
+    }
+
+    public void addLast(int t) {
+        add(t);
+    }
+
+    public void set(int index, int t) {
+        checkIndex(index);
+        arr[index] = t;
+    }
+
+    public void insert(int index, int t) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity();
+        System.arraycopy(arr, index, arr, index + 1, size - index);
+        arr[index] = t;
+        size++;
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+        System.arraycopy(arr, index + 1, arr, index, size - index - 1);
+        size--;
+    }
+
+    public void removeFirst() {
+        remove(0);
+    }
+
+    public void removeLast() {
+        remove(size - 1);
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return arr[index];
+    }
+
+    public int getFirst() {
+        return get(0);
+    }
+
+    public int getLast() {
+        return get(size - 1);
+    }
+
+    public int popFirst() {
+        int t = getFirst();
+        removeFirst();
+        return t;
+    }
+
+    public int popLast() {
+        int t = getLast();
+        removeLast();
+        return t;
+    }
+
+    public boolean contains(int t) {
+        for (int i = 0; i < size; i++)
+            if (arr[i] == t)
+                return true;
+        return false;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++)
+            action.accept(arr[i]);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return arr.length;
+    }
+
+
+    public void sort() {
+        sort(0, size, Sorts.SortingType.DEFAULT);
+    }
+
+    public void sort(int start, int end) {
+        sort(start, end, Sorts.SortingType.DEFAULT);
+    }
+
+    public void sort(Sorts.SortingType sortingType) {
+        sort(0, size, sortingType);
+    }
+
+    public void sort(int start, int end, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        Sorts.sort(arr, start, end, sortingType);
+    }
+
+
+    public int[] toArray() {
+        int[] array = new int[size];
+        System.arraycopy(arr, 0, array, 0, size);
+        return array;
+    }
+
+    public final void setData(int[] values) {
+        arr = new int[values.length];
+        System.arraycopy(values, 0, arr, 0, values.length);
+        size = arr.length;
+    }
+
+
+    public void minimizeCapacity() {
+        setCapacity(size);
+    }
+
+
+    public void resize(int size) {
+        if (size > this.size)
+            ensureCapacity(size);
+        for (int i = this.size; i < size; i++)
+            arr[i] = 0;
+        this.size = size;
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(arr[i]);
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
@@ -4,7 +4,11 @@ import algo.Sorts;
 
 import java.util.Comparator;
 import java.util.Objects;
+import java.util.Spliterator;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface List<T> {
 
@@ -22,11 +26,32 @@ public interface List<T> {
     }
 
 
+    default void addAll(List<? extends T> other) {
+        insertAll(size(), other);
+    }
+
+    default void addAll(Object[] objs) {
+        insertAll(size(), objs);
+    }
+
+
     void set(int index, T t);
 
 
     void insert(int index, T t);
 
+    default void insertAll(int index, List<? extends T> other) {
+        insertAll(index, other.toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    default void insertAll(int index, Object[] objs) {
+        if (index < 0 || index > size())
+            throw new IndexOutOfBoundsException();
+        for (int i = 0; i < objs.length; i++)
+            insert(index + i, (T) objs[i]);
+    }
+
 
     void remove(int index);
 
@@ -38,6 +63,27 @@ public interface List<T> {
         remove(size() - 1);
     }
 
+    /**
+     * Removes the elements [from, to).
+     */
+    default void removeRange(int from, int to) {
+        if (from < 0 || to > size() || from > to)
+            throw new IndexOutOfBoundsException();
+        for (int i = from; i < to; i++)
+            remove(from);
+    }
+
+    /**
+     * Removes every element matching the filter, returns whether anything was removed.
+     */
+    default boolean removeIf(Predicate<? super T> filter) {
+        int oldSize = size();
+        for (int i = size() - 1; i >= 0; i--)
+            if (filter.test(get(i)))
+                remove(i);
+        return size() != oldSize;
+    }
+
 
     T get(int index);
 
@@ -77,6 +123,22 @@ public interface List<T> {
     }
 
 
+    /**
+     * Splits by index, so implementations with O(n) get() should override it.
+     */
+    default Spliterator<T> spliterator() {
+        return new ListSpliterators.IndexSpliterator<>(this, 0, size());
+    }
+
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+
     void clear();
 
 
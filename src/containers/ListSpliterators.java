@@ -0,0 +1,182 @@
+package containers;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterators behind {@link List#spliterator()}.
+ */
+final class ListSpliterators {
+
+
+    private ListSpliterators() {
+        new Error("Forbidden instance of class "+ListSpliterators.class).printStackTrace();
+        System.exit(1);
+    }
+
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+
+
+    /**
+     * Range [index, fence) of an Object[]; splits in halves.
+     */
+    static final class ArraySpliterator<T> implements Spliterator<T> {
+
+        private final Object[] array;
+        private int index;
+        private final int fence;
+
+        ArraySpliterator(Object[] array, int start, int end) {
+            this.array = array;
+            this.index = start;
+            this.fence = end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= fence)
+                return false;
+            action.accept((T) array[index++]);
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            for (int i = index; i < fence; i++)
+                action.accept((T) array[i]);
+            index = fence;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index)
+                return null;
+            Spliterator<T> prefix = new ArraySpliterator<>(array, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+
+    /**
+     * Range [index, fence) of any list with cheap get(i); splits in halves.
+     */
+    static final class IndexSpliterator<T> implements Spliterator<T> {
+
+        private final List<T> list;
+        private int index;
+        private final int fence;
+
+        IndexSpliterator(List<T> list, int start, int end) {
+            this.list = list;
+            this.index = start;
+            this.fence = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (index >= fence)
+                return false;
+            action.accept(list.get(index++));
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index)
+                return null;
+            Spliterator<T> prefix = new IndexSpliterator<>(list, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+
+    /**
+     * Sequential walk over linked nodes: each split copies the next batch of elements into an array,
+     * batches grow arithmetically so that both short and long lists split well.
+     */
+    static final class ForwardListSpliterator<T> implements Spliterator<T> {
+
+        private static final int BATCH_UNIT = 1 << 10;
+        private static final int MAX_BATCH = 1 << 25;
+
+        private ForwardList.Node<T> cur;
+        private int remaining;
+        private int batch = 0;
+
+        ForwardListSpliterator(ForwardList.Node<T> head, int size) {
+            this.cur = head;
+            this.remaining = size;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (remaining == 0)
+                return false;
+            T t = cur.data;
+            cur = cur.next;
+            remaining--;
+            action.accept(t);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            for (; remaining > 0; remaining--) {
+                action.accept(cur.data);
+                cur = cur.next;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (remaining <= 1)
+                return null;
+            int n = Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), remaining);
+            Object[] array = new Object[n];
+            for (int i = 0; i < n; i++) {
+                array[i] = cur.data;
+                cur = cur.next;
+            }
+            batch = n;
+            remaining -= n;
+            return new ArraySpliterator<>(array, 0, n);
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+}
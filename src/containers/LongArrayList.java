@@ -0,0 +1,223 @@
+package containers;
+
+import algo.Sorts;
+
+import java.util.function.LongConsumer;
+
+/**
+ * {@link ArrayList} of unboxed {@code long} values: one long per element instead of a reference to a boxed object.
+ * Mirrors the {@link List} API with primitive signatures.
+ */
+public class LongArrayList {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private long[] arr;
+    private int size = 0;
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private void ensureCapacity() {
+        ensureCapacity(size + 1);
+    }
+
+    // PUBLIC
+    public void ensureCapacity(int minCapacity) {
+        if (capacity() >= minCapacity)
+            return;
+        setCapacity(Math.max((int) (capacity() * CAPACITY_MULTIPLIER), minCapacity));
+    }
+
+    private void setCapacity(int newCapacity) {
+        if (newCapacity < size)
+            throw new IllegalArgumentException();
+        if (newCapacity == capacity())
+            return;
+        long[] newArr = new long[newCapacity];
+        System.arraycopy(arr, 0, newArr, 0, size);
+        arr = newArr;
+    }
+
+
+    public LongArrayList() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public LongArrayList(int initialCapacity) {
+        arr = new long[initialCapacity];
+    }
+
+    public LongArrayList(long[] values) {
+        setData(values);
+    }
+
+    public LongArrayList(LongArrayList other) {
+        arr = new long[other.size];
+        System.arraycopy(other.arr, 0, arr, 0, other.size);
+        size = other.size;
+    }
+
+
+    public void add(long t) {
+        ensureCapacity();
+        arr[size] = t;
+        size++;
+    }
+
+    public void addFirst(long t) {
+        insert(0, t);
+    }
+
+    public void addLast(long t) {
+        add(t);
+    }
+
+    public void set(int index, long t) {
+        checkIndex(index);
+        arr[index] = t;
+    }
+
+    public void insert(int index, long t) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity();
+        System.arraycopy(arr, index, arr, index + 1, size - index);
+        arr[index] = t;
+        size++;
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+        System.arraycopy(arr, index + 1, arr, index, size - index - 1);
+        size--;
+    }
+
+    public void removeFirst() {
+        remove(0);
+    }
+
+    public void removeLast() {
+        remove(size - 1);
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return arr[index];
+    }
+
+    public long getFirst() {
+        return get(0);
+    }
+
+    public long getLast() {
+        return get(size - 1);
+    }
+
+    public long popFirst() {
+        long t = getFirst();
+        removeFirst();
+        return t;
+    }
+
+    public long popLast() {
+        long t = getLast();
+        removeLast();
+        return t;
+    }
+
+    public boolean contains(long t) {
+        for (int i = 0; i < size; i++)
+            if (arr[i] == t)
+                return true;
+        return false;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++)
+            action.accept(arr[i]);
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    public int capacity() {
+        return arr.length;
+    }
+
+
+    public void sort() {
+        sort(0, size, Sorts.SortingType.DEFAULT);
+    }
+
+    public void sort(int start, int end) {
+        sort(start, end, Sorts.SortingType.DEFAULT);
+    }
+
+    public void sort(Sorts.SortingType sortingType) {
+        sort(0, size, sortingType);
+    }
+
+    public void sort(int start, int end, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        Sorts.sort(arr, start, end, sortingType);
+    }
+
+
+    public long[] toArray() {
+        long[] array = new long[size];
+        System.arraycopy(arr, 0, array, 0, size);
+        return array;
+    }
+
+    public final void setData(long[] values) {
+        arr = new long[values.length];
+        System.arraycopy(values, 0, arr, 0, values.length);
+        size = arr.length;
+    }
+
+
+    public void minimizeCapacity() {
+        setCapacity(size);
+    }
+
+
+    public void resize(int size) {
+        if (size > this.size)
+            ensureCapacity(size);
+        for (int i = this.size; i < size; i++)
+            arr[i] = 0;
+        this.size = size;
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(arr[i]);
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
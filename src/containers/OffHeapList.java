@@ -0,0 +1,332 @@
+package containers;
+
+import algo.Sorts;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Comparator;
+
+/**
+ * List of fixed-size records stored outside the heap in a direct {@link ByteBuffer}, so the garbage collector
+ * never scans or copies the elements. Values are encoded by a {@link RecordSerializer}; get() decodes a fresh value,
+ * bulk readers should use the zero-copy {@link #view} instead.
+ * <p>
+ * Sorting argsorts an int[] of record indexes and then moves the records inside the buffer. {@link #sortRecords} compares
+ * records in place and {@link #sortByKey} reads one primitive key per record, so neither decodes the elements;
+ * sort() with a value comparator decodes every element once.
+ * After {@link #close()} the memory is released to the garbage collector and every access throws.
+ * Capacity is limited to Integer.MAX_VALUE bytes.
+ */
+public class OffHeapList<T> implements List<T>, AutoCloseable {
+
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+    private static final double CAPACITY_MULTIPLIER = 1.73205080757;
+
+
+    private final RecordSerializer<T> serializer;
+    private final int recordSize;
+
+    private ByteBuffer buffer;
+    private int capacity;
+    private int size = 0;
+
+
+    private void checkOpen() {
+        if (buffer == null)
+            throw new IllegalStateException("list is closed");
+    }
+
+    private void checkIndex(int index) {
+        checkOpen();
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private void ensureCapacity() {
+        ensureCapacity(size + 1);
+    }
+
+    // PUBLIC
+    public void ensureCapacity(int minCapacity) {
+        checkOpen();
+        if (capacity >= minCapacity)
+            return;
+        setCapacity(Math.max((int) Math.min(capacity * CAPACITY_MULTIPLIER, maxCapacity()), minCapacity));
+    }
+
+    private int maxCapacity() {
+        return Integer.MAX_VALUE / recordSize;
+    }
+
+    private void setCapacity(int newCapacity) {
+        if (newCapacity < size || newCapacity > maxCapacity())
+            throw new IllegalArgumentException();
+        if (buffer != null && newCapacity == capacity)
+            return;
+        ByteBuffer newBuffer = ByteBuffer.allocateDirect(newCapacity * recordSize).order(ByteOrder.nativeOrder());
+        if (buffer != null)
+            newBuffer.put(0, buffer, 0, size * recordSize);
+        buffer = newBuffer;
+        capacity = newCapacity;
+    }
+
+
+    public OffHeapList(RecordSerializer<T> serializer) {
+        this(serializer, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public OffHeapList(RecordSerializer<T> serializer, int initialCapacity) {
+        this.serializer = serializer;
+        this.recordSize = serializer.recordSize();
+        if (recordSize <= 0)
+            throw new IllegalArgumentException();
+        setCapacity(initialCapacity);
+    }
+
+
+    @Override
+    public void add(T t) {
+        ensureCapacity();
+        serializer.write(buffer, size * recordSize, t);
+        size++;
+    }
+
+    @Override
+    public void set(int index, T t) {
+        checkIndex(index);
+        serializer.write(buffer, index * recordSize, t);
+    }
+
+    @Override
+    public void insert(int index, T t) {
+        checkOpen();
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity();
+        buffer.put((index + 1) * recordSize, buffer.duplicate(), index * recordSize, (size - index) * recordSize);
+        serializer.write(buffer, index * recordSize, t);
+        size++;
+    }
+
+    @Override
+    public void remove(int index) {
+        checkIndex(index);
+        buffer.put(index * recordSize, buffer.duplicate(), (index + 1) * recordSize, (size - index - 1) * recordSize);
+        size--;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void insertAll(int index, Object[] objs) {
+        checkOpen();
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException();
+        ensureCapacity(size + objs.length);
+        buffer.put((index + objs.length) * recordSize, buffer.duplicate(), index * recordSize, (size - index) * recordSize);
+        for (int i = 0; i < objs.length; i++)
+            serializer.write(buffer, (index + i) * recordSize, (T) objs[i]);
+        size += objs.length;
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        checkRange(from, to);
+        buffer.put(from * recordSize, buffer.duplicate(), to * recordSize, (size - to) * recordSize);
+        size -= to - from;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return serializer.read(buffer, index * recordSize);
+    }
+
+    @Override
+    public void clear() {
+        checkOpen();
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int recordSize() {
+        return recordSize;
+    }
+
+
+    /**
+     * Read-only zero-copy view of the records [from, to): record i of the view starts at byte (i - from) * recordSize().
+     * The view is valid until the list grows, shrinks its capacity or is closed.
+     */
+    public ByteBuffer view(int from, int to) {
+        checkOpen();
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        return buffer.slice(from * recordSize, (to - from) * recordSize).asReadOnlyBuffer().order(buffer.order());
+    }
+
+    public ByteBuffer view() {
+        return view(0, size);
+    }
+
+    /**
+     * Read-only zero-copy view of one record.
+     */
+    public ByteBuffer recordView(int index) {
+        return view(index, index + 1);
+    }
+
+
+    /**
+     * Compares two records in place by absolute reads at the given byte offsets of the buffer.
+     */
+    @FunctionalInterface
+    public interface RecordComparator {
+        int compare(ByteBuffer records, int offset1, int offset2);
+    }
+
+    /**
+     * Reads a sort key from the record at the given byte offset of the buffer.
+     */
+    @FunctionalInterface
+    public interface RecordKey {
+        long key(ByteBuffer records, int offset);
+    }
+
+
+    /**
+     * Decodes every element of the range once, argsorts the decoded values and moves the records in place.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void sort(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        checkRange(start, end);
+        Object[] values = new Object[end - start];
+        for (int i = 0; i < values.length; i++)
+            values[i] = serializer.read(buffer, (start + i) * recordSize);
+        int[] permutation = Sorts.argsort(values, (Comparator) comparator, sortingType);
+        for (int k = 0; k < permutation.length; k++)
+            permutation[k] += start;
+        applyPermutation(permutation, start);
+    }
+
+    /**
+     * Sorts by raw records without decoding them or allocating per comparison.
+     */
+    public void sortRecords(int start, int end, RecordComparator comparator, Sorts.SortingType sortingType) {
+        checkRange(start, end);
+        ByteBuffer records = buffer.asReadOnlyBuffer().order(buffer.order());
+        int[] permutation = Sorts.argsort(start, end,
+                (i, j) -> comparator.compare(records, i * recordSize, j * recordSize), sortingType);
+        applyPermutation(permutation, start);
+    }
+
+    public void sortRecords(RecordComparator comparator) {
+        sortRecords(0, size, comparator, Sorts.SortingType.DEFAULT);
+    }
+
+    /**
+     * Reads each record's key once into a long[] and argsorts that column; RADIX_SORT runs a radix sort on it.
+     */
+    public void sortByKey(int start, int end, RecordKey key, Sorts.SortingType sortingType) {
+        checkRange(start, end);
+        ByteBuffer records = buffer.asReadOnlyBuffer().order(buffer.order());
+        long[] keys = new long[end - start];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = key.key(records, (start + i) * recordSize);
+        int[] permutation = Sorts.argsort(keys, sortingType);
+        for (int k = 0; k < permutation.length; k++)
+            permutation[k] += start;
+        applyPermutation(permutation, start);
+    }
+
+    public void sortByKey(RecordKey key) {
+        sortByKey(0, size, key, Sorts.SortingType.DEFAULT);
+    }
+
+    private void checkRange(int start, int end) {
+        checkOpen();
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+    }
+
+    // record start + k becomes the old record permutation[k], following the cycles with one record of scratch
+    private void applyPermutation(int[] permutation, int start) {
+        ByteBuffer source = buffer.duplicate();
+        ByteBuffer tmp = ByteBuffer.allocate(recordSize);
+        for (int k = 0; k < permutation.length; k++) {
+            if (permutation[k] < 0 || permutation[k] == start + k)
+                continue;
+            tmp.put(0, buffer, (start + k) * recordSize, recordSize);
+            int cur = k;
+            while (permutation[cur] != start + k) {
+                int next = permutation[cur] - start;
+                buffer.put((start + cur) * recordSize, source, (start + next) * recordSize, recordSize);
+                permutation[cur] = -1;
+                cur = next;
+            }
+            buffer.put((start + cur) * recordSize, tmp, 0, recordSize);
+            permutation[cur] = -1;
+        }
+    }
+
+
+    @Override
+    public Object[] toArray() {
+        checkOpen();
+        Object[] array = new Object[size];
+        for (int i = 0; i < size; i++)
+            array[i] = serializer.read(buffer, i * recordSize);
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void setData(Object[] objs) {
+        checkOpen();
+        size = 0;
+        ensureCapacity(objs.length);
+        for (Object obj : objs)
+            add((T) obj);
+    }
+
+
+    public void minimizeCapacity() {
+        checkOpen();
+        setCapacity(size);
+    }
+
+
+    /**
+     * Releases the buffer; the memory is reclaimed when the garbage collector frees the direct buffer.
+     */
+    @Override
+    public void close() {
+        buffer = null;
+        capacity = 0;
+        size = 0;
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(get(i));
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
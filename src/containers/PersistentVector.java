@@ -0,0 +1,328 @@
+package containers;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Immutable vector: a 32-way trie of full leaves plus a tail array of up to 32 trailing elements.
+ * Updates return a new vector that shares all untouched nodes, so a snapshot is O(1) (the vector itself) and
+ * append, with and pop cost O(log32 n) node copies. A {@link Builder} mutates its own nodes in place for bulk loads.
+ * <p>
+ * Only the read side of {@link List} is supported; the mutators throw like a read-only iterator does.
+ */
+public final class PersistentVector<T> implements List<T> {
+
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+
+    // edit is the owner Builder's token, nodes of a finished vector are never written again
+    private static final class Node {
+        final Object edit;
+        final Object[] array;
+        Node(Object edit, Object[] array) { this.edit = edit; this.array = array; }
+    }
+
+
+    private static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, new Object[0]);
+
+
+    private final int size;
+    private final int shift;
+    private final Node root;
+    private final Object[] tail;
+
+
+    private PersistentVector(int size, int shift, Node root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PersistentVector<T> emptyVector() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    @SafeVarargs
+    public static <T> PersistentVector<T> of(T... objs) {
+        Builder<T> builder = new Builder<>(emptyVector());
+        for (T t : objs)
+            builder.add(t);
+        return builder.build();
+    }
+
+    public static <T> PersistentVector<T> from(List<? extends T> list) {
+        Builder<T> builder = new Builder<>(emptyVector());
+        list.forEach(builder::add);
+        return builder.build();
+    }
+
+    public Builder<T> toBuilder() {
+        return new Builder<>(this);
+    }
+
+
+    private static int tailOffset(int size) {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] arrayFor(int index) {
+        if (index >= tailOffset(size))
+            return tail;
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS)
+            node = (Node) node.array[(index >>> level) & MASK];
+        return node.array;
+    }
+
+    private static Node newPath(Object edit, int level, Node node) {
+        if (level == 0)
+            return node;
+        Node path = new Node(edit, new Object[WIDTH]);
+        path.array[0] = newPath(edit, level - BITS, node);
+        return path;
+    }
+
+
+    public PersistentVector<T> append(T t) {
+        if (size - tailOffset(size) < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = t;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+        Node tailNode = new Node(null, tail);
+        Node newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) { // root is full: grow one level
+            newRoot = new Node(null, new Object[WIDTH]);
+            newRoot.array[0] = root;
+            newRoot.array[1] = newPath(null, shift, tailNode);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(size, shift, root, tailNode, null);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[] {t});
+    }
+
+    // copies the path to the slot of the leaf ending at size, reusing nodes already owned by edit
+    private static Node pushTail(int size, int level, Node parent, Node tailNode, Object edit) {
+        Node result = edit != null && parent.edit == edit ? parent : new Node(edit, parent.array.clone());
+        int sub = ((size - 1) >>> level) & MASK;
+        Node toInsert;
+        if (level == BITS) {
+            toInsert = tailNode;
+        } else {
+            Node child = (Node) parent.array[sub];
+            toInsert = child != null
+                    ? pushTail(size, level - BITS, child, tailNode, edit)
+                    : newPath(edit, level - BITS, tailNode);
+        }
+        result.array[sub] = toInsert;
+        return result;
+    }
+
+    public PersistentVector<T> with(int index, T t) {
+        checkIndex(index);
+        if (index >= tailOffset(size)) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = t;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(shift, root, index, t, null), tail);
+    }
+
+    private static Node assoc(int level, Node node, int index, Object t, Object edit) {
+        Node result = edit != null && node.edit == edit ? node : new Node(edit, node.array.clone());
+        if (level == 0) {
+            result.array[index & MASK] = t;
+        } else {
+            int sub = (index >>> level) & MASK;
+            result.array[sub] = assoc(level - BITS, (Node) node.array[sub], index, t, edit);
+        }
+        return result;
+    }
+
+    public PersistentVector<T> pop() {
+        if (size == 0)
+            throw new IndexOutOfBoundsException();
+        if (size == 1)
+            return emptyVector();
+        if (size - tailOffset(size) > 1)
+            return new PersistentVector<>(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+        Object[] newTail = arrayFor(size - 2);
+        Node newRoot = popTail(shift, root);
+        int newShift = shift;
+        if (newRoot == null)
+            newRoot = EMPTY_NODE;
+        if (shift > BITS && newRoot.array[1] == null) { // root has one child left: drop a level
+            newRoot = (Node) newRoot.array[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<>(size - 1, newShift, newRoot, newTail);
+    }
+
+    private Node popTail(int level, Node node) {
+        int sub = ((size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Node newChild = popTail(level - BITS, (Node) node.array[sub]);
+            if (newChild == null && sub == 0)
+                return null;
+            Node result = new Node(null, node.array.clone());
+            result.array[sub] = newChild;
+            return result;
+        }
+        if (sub == 0)
+            return null;
+        Node result = new Node(null, node.array.clone());
+        result.array[sub] = null;
+        return result;
+    }
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) arrayFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<T> action) {
+        for (int i = 0; i < size; i += WIDTH) {
+            Object[] array = arrayFor(i);
+            for (int j = 0, n = Math.min(WIDTH, size - i); j < n; j++)
+                action.accept((T) array[j]);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i += WIDTH)
+            System.arraycopy(arrayFor(i), 0, result, i, Math.min(WIDTH, size - i));
+        return result;
+    }
+
+
+    @Override
+    public void set(int index, T t) {
+        throw new IllegalAccessError();
+    }
+
+    @Override
+    public void insert(int index, T t) {
+        throw new IllegalAccessError();
+    }
+
+    @Override
+    public void remove(int index) {
+        throw new IllegalAccessError();
+    }
+
+    @Override
+    public void clear() {
+        throw new IllegalAccessError();
+    }
+
+    @Override
+    public void setData(Object[] objs) {
+        throw new IllegalAccessError();
+    }
+
+
+    /**
+     * Transient form of a vector: add and set write into nodes it created itself and copy shared ones once.
+     * build() hands the result over and disables the builder.
+     */
+    public static final class Builder<T> {
+
+        private Object edit = new Object();
+        private int size;
+        private int shift;
+        private Node root;
+        private Object[] tail;
+
+        private Builder(PersistentVector<T> vector) {
+            size = vector.size;
+            shift = vector.shift;
+            root = new Node(edit, vector.root.array.clone());
+            tail = Arrays.copyOf(vector.tail, WIDTH);
+        }
+
+        private void checkLive() {
+            if (edit == null)
+                throw new IllegalStateException("builder already built");
+        }
+
+        public Builder<T> add(T t) {
+            checkLive();
+            if (size - tailOffset(size) < WIDTH) {
+                tail[size & MASK] = t;
+                size++;
+                return this;
+            }
+            Node tailNode = new Node(edit, tail);
+            tail = new Object[WIDTH];
+            tail[0] = t;
+            if ((size >>> BITS) > (1 << shift)) {
+                Node newRoot = new Node(edit, new Object[WIDTH]);
+                newRoot.array[0] = root;
+                newRoot.array[1] = newPath(edit, shift, tailNode);
+                root = newRoot;
+                shift += BITS;
+            } else {
+                root = pushTail(size, shift, root, tailNode, edit);
+            }
+            size++;
+            return this;
+        }
+
+        public Builder<T> set(int index, T t) {
+            checkLive();
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException();
+            if (index >= tailOffset(size))
+                tail[index & MASK] = t;
+            else
+                root = assoc(shift, root, index, t, edit);
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PersistentVector<T> build() {
+            checkLive();
+            edit = null;
+            return new PersistentVector<>(size, shift, root, Arrays.copyOf(tail, size - tailOffset(size)));
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        forEach(t -> sb.append(t.toString()).append(", "));
+        sb.setLength(sb.length() - 2);
+        return sb.append(" }").toString();
+    }
+}
@@ -0,0 +1,68 @@
+package containers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size binary layout of T: every value takes exactly recordSize() bytes.
+ * Reads and writes use absolute offsets and leave the buffer position untouched.
+ */
+public interface RecordSerializer<T> {
+
+    int recordSize();
+
+    void write(ByteBuffer buffer, int offset, T t);
+
+    T read(ByteBuffer buffer, int offset);
+
+
+    static RecordSerializer<Integer> ints() {
+        return new RecordSerializer<>() {
+            @Override
+            public int recordSize() {
+                return Integer.BYTES;
+            }
+            @Override
+            public void write(ByteBuffer buffer, int offset, Integer t) {
+                buffer.putInt(offset, t);
+            }
+            @Override
+            public Integer read(ByteBuffer buffer, int offset) {
+                return buffer.getInt(offset);
+            }
+        };
+    }
+
+    static RecordSerializer<Long> longs() {
+        return new RecordSerializer<>() {
+            @Override
+            public int recordSize() {
+                return Long.BYTES;
+            }
+            @Override
+            public void write(ByteBuffer buffer, int offset, Long t) {
+                buffer.putLong(offset, t);
+            }
+            @Override
+            public Long read(ByteBuffer buffer, int offset) {
+                return buffer.getLong(offset);
+            }
+        };
+    }
+
+    static RecordSerializer<Double> doubles() {
+        return new RecordSerializer<>() {
+            @Override
+            public int recordSize() {
+                return Double.BYTES;
+            }
+            @Override
+            public void write(ByteBuffer buffer, int offset, Double t) {
+                buffer.putDouble(offset, t);
+            }
+            @Override
+            public Double read(ByteBuffer buffer, int offset) {
+                return buffer.getDouble(offset);
+            }
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package containers;
+
+import algo.Sorts;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Array list stored in fixed-size segments of 2^segmentShift elements. Growing appends a segment, existing elements
+ * are never copied; only the small table of segment references is reallocated. Element i lives in
+ * segments[i >>> shift][i & mask].
+ */
+public class SegmentedArrayList<T> implements List<T> {
+
+
+    private static final int DEFAULT_SEGMENT_SHIFT = 12;
+
+
+    /**
+     * Receives the used part [0, length) of each segment in order; the array must not be modified or kept.
+     */
+    @FunctionalInterface
+    public interface SegmentConsumer {
+        void accept(Object[] segment, int length);
+    }
+
+
+    private final int shift;
+    private final int mask;
+
+    private Object[][] segments = new Object[0][];
+    private int segmentCount = 0; // allocated segments
+    private int size = 0;
+
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+    }
+
+    private void ensureCapacity() {
+        if (size == Integer.MAX_VALUE)
+            throw new OutOfMemoryError();
+        if (size == capacity())
+            addSegment();
+    }
+
+    // PUBLIC
+    public void ensureCapacity(int minCapacity) {
+        while (capacity() < minCapacity)
+            addSegment();
+    }
+
+    private void addSegment() {
+        if (segmentCount == segments.length) {
+            Object[][] newSegments = new Object[Math.max(4, segments.length * 2)][];
+            System.arraycopy(segments, 0, newSegments, 0, segmentCount);
+            segments = newSegments;
+        }
+        segments[segmentCount++] = new Object[1 << shift];
+    }
+
+
+    public SegmentedArrayList() {
+        this(DEFAULT_SEGMENT_SHIFT);
+    }
+
+    public SegmentedArrayList(int segmentShift) {
+        if (segmentShift < 0 || segmentShift > 30)
+            throw new IllegalArgumentException();
+        shift = segmentShift;
+        mask = (1 << segmentShift) - 1;
+    }
+
+    public SegmentedArrayList(T[] objs) {
+        this();
+        setData(objs);
+    }
+
+
+    @Override
+    public void add(T t) {
+        ensureCapacity();
+        segments[size >>> shift][size & mask] = t;
+        size++;
+    }
+
+    @Override
+    public void set(int index, T t) {
+        checkIndex(index);
+        segments[index >>> shift][index & mask] = t;
+    }
+
+    // shifts the tail right by one, segment by segment, carrying the last element of each into the next
+    @Override
+    public void insert(int index, T t) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        ensureCapacity();
+        Object carry = t;
+        int segmentIndex = index >>> shift;
+        int offset = index & mask;
+        int last = size >>> shift;
+        for (int s = segmentIndex; s <= last; s++, offset = 0) {
+            Object[] segment = segments[s];
+            int end = s == last ? size & mask : mask;
+            Object next = s == last ? null : segment[mask];
+            System.arraycopy(segment, offset, segment, offset + 1, end - offset);
+            segment[offset] = carry;
+            carry = next;
+        }
+        size++;
+    }
+
+    @Override
+    public void remove(int index) {
+        checkIndex(index);
+        int segmentIndex = index >>> shift;
+        int offset = index & mask;
+        int last = (size - 1) >>> shift;
+        for (int s = segmentIndex; s <= last; s++, offset = 0) {
+            Object[] segment = segments[s];
+            int end = s == last ? (size - 1) & mask : mask;
+            System.arraycopy(segment, offset + 1, segment, offset, end - offset);
+            segment[end] = s == last ? null : segments[s + 1][0];
+        }
+        size--;
+    }
+
+    @Override
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to)
+            throw new IndexOutOfBoundsException();
+        // the tail moves left in chunks that stay inside one source and one target segment
+        for (int target = from, source = to; source < size;) {
+            int n = Math.min(Math.min((1 << shift) - (target & mask), (1 << shift) - (source & mask)), size - source);
+            System.arraycopy(segments[source >>> shift], source & mask, segments[target >>> shift], target & mask, n);
+            target += n;
+            source += n;
+        }
+        for (int i = size - (to - from); i < size;) {
+            int n = Math.min((1 << shift) - (i & mask), size - i);
+            Arrays.fill(segments[i >>> shift], i & mask, (i & mask) + n, null);
+            i += n;
+        }
+        size -= to - from;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) segments[index >>> shift][index & mask];
+    }
+
+    @Override
+    public boolean contains(T t) {
+        final boolean[] found = {false};
+        forEachSegment((segment, length) -> {
+            for (int i = 0; i < length && !found[0]; i++)
+                found[0] = Objects.equals(segment[i], t);
+        });
+        return found[0];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<T> action) {
+        forEachSegment((segment, length) -> {
+            for (int i = 0; i < length; i++)
+                action.accept((T) segment[i]);
+        });
+    }
+
+    /**
+     * Bulk read-only scan: hands out each used segment array directly, without copying.
+     */
+    public void forEachSegment(SegmentConsumer action) {
+        for (int s = 0, remaining = size; remaining > 0; s++, remaining -= 1 << shift)
+            action.accept(segments[s], Math.min(remaining, 1 << shift));
+    }
+
+    @Override
+    public void clear() {
+        for (int s = 0; s < segmentCount; s++)
+            segments[s] = null;
+        segmentCount = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // clamped, since segmentCount << shift can pass Integer.MAX_VALUE for large segments
+    public int capacity() {
+        return (int) Math.min((long) segmentCount << shift, Integer.MAX_VALUE);
+    }
+
+    public int segmentSize() {
+        return 1 << shift;
+    }
+
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void sort(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        Object[] array = new Object[end - start];
+        transfer(start, array, true);
+        Sorts.sort(array, (Comparator) comparator, sortingType);
+        transfer(start, array, false);
+    }
+
+    // copies array.length elements between the list (from index start) and the array, one arraycopy per segment
+    private void transfer(int start, Object[] array, boolean toArray) {
+        for (int copied = 0; copied < array.length;) {
+            int index = start + copied;
+            int n = Math.min((1 << shift) - (index & mask), array.length - copied);
+            if (toArray)
+                System.arraycopy(segments[index >>> shift], index & mask, array, copied, n);
+            else
+                System.arraycopy(array, copied, segments[index >>> shift], index & mask, n);
+            copied += n;
+        }
+    }
+
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        transfer(0, array, true);
+        return array;
+    }
+
+    @Override
+    public final void setData(Object[] objs) {
+        clear();
+        ensureCapacity(objs.length);
+        transfer(0, objs, false);
+        size = objs.length;
+    }
+
+
+    // drops segments past the last used one
+    public void minimizeCapacity() {
+        int used = (size + mask) >>> shift;
+        for (int s = used; s < segmentCount; s++)
+            segments[s] = null;
+        segmentCount = used;
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        for (int i = 0;;) {
+            sb.append(get(i).toString());
+            if (++i == size)
+                break;
+            sb.append(", ");
+        }
+        return sb.append(" }").toString();
+    }
+}
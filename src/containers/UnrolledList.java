@@ -0,0 +1,346 @@
+package containers;
+
+import algo.Sorts;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Doubly linked list of small arrays. New nodes get about sqrt(size) slots, so indexed access walks O(sqrt n) nodes
+ * from the nearer end, middle insertion shifts inside one node only and iteration scans contiguous arrays.
+ */
+public class UnrolledList<T> implements List<T> {
+
+
+    private static final int MIN_NODE_CAPACITY = 16;
+
+
+    private static class Node<T> {
+        Node<T> prev, next;
+        Object[] items;
+        int count = 0;
+        Node(int capacity) { items = new Object[capacity]; }
+    }
+
+    // an element's node and its offset inside it, as found by findNode
+    private static class Position<T> {
+        final Node<T> node;
+        final int offset;
+        Position(Node<T> node, int offset) { this.node = node; this.offset = offset; }
+    }
+
+
+    private Node<T> head, tail;
+    private int size = 0;
+
+
+    private static int nodeCapacity(int size) {
+        return Math.max(MIN_NODE_CAPACITY, (int) Math.sqrt(size) + 1);
+    }
+
+
+    public UnrolledList() {
+    }
+
+    @SafeVarargs
+    public UnrolledList(T... objs) {
+        setData(objs);
+    }
+
+
+    private Position<T> findNode(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException();
+        Node<T> cur;
+        if (index < size / 2) {
+            cur = head;
+            while (index >= cur.count) {
+                index -= cur.count;
+                cur = cur.next;
+            }
+        } else {
+            cur = tail;
+            index = size - index; // elements from the end up to and including index
+            while (index > cur.count) {
+                index -= cur.count;
+                cur = cur.prev;
+            }
+            index = cur.count - index;
+        }
+        return new Position<>(cur, index);
+    }
+
+    private Node<T> linkAfter(Node<T> node, int capacity) {
+        Node<T> newNode = new Node<>(capacity);
+        newNode.prev = node;
+        if (node == null) {
+            newNode.next = head;
+            head = newNode;
+        } else {
+            newNode.next = node.next;
+            node.next = newNode;
+        }
+        if (newNode.next == null)
+            tail = newNode;
+        else
+            newNode.next.prev = newNode;
+        return newNode;
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev == null)
+            head = node.next;
+        else
+            node.prev.next = node.next;
+        if (node.next == null)
+            tail = node.prev;
+        else
+            node.next.prev = node.prev;
+    }
+
+
+    @Override
+    public void add(T t) {
+        if (tail == null || tail.count == tail.items.length)
+            linkAfter(tail, nodeCapacity(size));
+        tail.items[tail.count++] = t;
+        size++;
+    }
+
+    @Override
+    public void set(int index, T t) {
+        Position<T> position = findNode(index);
+        position.node.items[position.offset] = t;
+    }
+
+    // a full node is split in halves, the upper half moves to a new node
+    @Override
+    public void insert(int index, T t) {
+        if (index < 0 || index > size) // > size, not >= size
+            throw new IndexOutOfBoundsException();
+        if (index == size) {
+            add(t);
+            return;
+        }
+        Position<T> position = findNode(index);
+        Node<T> node = position.node;
+        int offset = position.offset;
+        if (node.count == node.items.length) {
+            Node<T> upper = linkAfter(node, Math.max(nodeCapacity(size), node.count));
+            int half = node.count / 2;
+            upper.count = node.count - half;
+            System.arraycopy(node.items, half, upper.items, 0, upper.count);
+            for (int i = half; i < node.count; i++)
+                node.items[i] = null;
+            node.count = half;
+            if (offset > half) {
+                node = upper;
+                offset -= half;
+            }
+        }
+        System.arraycopy(node.items, offset, node.items, offset + 1, node.count - offset);
+        node.items[offset] = t;
+        node.count++;
+        size++;
+    }
+
+    // an emptied node is unlinked, a sparse one absorbs its successor when that fits
+    @Override
+    public void remove(int index) {
+        Position<T> position = findNode(index);
+        Node<T> node = position.node;
+        int offset = position.offset;
+        System.arraycopy(node.items, offset + 1, node.items, offset, node.count - offset - 1);
+        node.items[--node.count] = null;
+        size--;
+        if (node.count == 0) {
+            unlink(node);
+        } else if (node.count < node.items.length / 4 && node.next != null
+                && node.count + node.next.count <= node.items.length) {
+            Node<T> next = node.next;
+            System.arraycopy(next.items, 0, node.items, node.count, next.count);
+            node.count += next.count;
+            unlink(next);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Position<T> position = findNode(index);
+        return (T) position.node.items[position.offset];
+    }
+
+    @Override
+    public boolean contains(T t) {
+        for (Node<T> node = head; node != null; node = node.next)
+            for (int i = 0; i < node.count; i++)
+                if (Objects.equals(node.items[i], t))
+                    return true;
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<T> action) {
+        for (Node<T> node = head; node != null; node = node.next)
+            for (int i = 0; i < node.count; i++)
+                action.accept((T) node.items[i]);
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return new UnrolledSpliterator<>(head, 0, size);
+    }
+
+    @Override
+    public void clear() {
+        head = tail = null;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Copies the range into an array once, sorts it with the chosen engine and writes it back into the same slots.
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void sort(int start, int end, Comparator<? super T> comparator, Sorts.SortingType sortingType) {
+        if (start < 0 || end > size || start > end)
+            throw new IndexOutOfBoundsException();
+        if (end - start < 2)
+            return;
+        Object[] array = new Object[end - start];
+        Position<T> first = findNode(start);
+        transfer(first.node, first.offset, array, true);
+        Sorts.sort(array, (Comparator) comparator, sortingType);
+        transfer(first.node, first.offset, array, false);
+    }
+
+    // copies array.length elements between the list (from node[offset]) and the array, one arraycopy per node
+    private static void transfer(Node<?> node, int offset, Object[] array, boolean toArray) {
+        for (int copied = 0; copied < array.length; node = node.next, offset = 0) {
+            int n = Math.min(node.count - offset, array.length - copied);
+            if (toArray)
+                System.arraycopy(node.items, offset, array, copied, n);
+            else
+                System.arraycopy(array, copied, node.items, offset, n);
+            copied += n;
+        }
+    }
+
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        if (head != null)
+            transfer(head, 0, array, true);
+        return array;
+    }
+
+    @Override
+    public final void setData(Object[] objs) {
+        clear();
+        int capacity = nodeCapacity(objs.length);
+        for (int copied = 0; copied < objs.length; copied += tail.count) {
+            linkAfter(tail, capacity);
+            tail.count = Math.min(capacity, objs.length - copied);
+            System.arraycopy(objs, copied, tail.items, 0, tail.count);
+        }
+        size = objs.length;
+    }
+
+
+    /**
+     * Walks the nodes; splits at the node boundary nearest to the middle of the remaining elements.
+     */
+    private static final class UnrolledSpliterator<T> implements Spliterator<T> {
+
+        private Node<T> node;
+        private int offset;
+        private int remaining;
+
+        UnrolledSpliterator(Node<T> node, int offset, int remaining) {
+            this.node = node;
+            this.offset = offset;
+            this.remaining = remaining;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (remaining == 0)
+                return false;
+            if (offset == node.count) {
+                node = node.next;
+                offset = 0;
+            }
+            remaining--;
+            action.accept((T) node.items[offset++]);
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (remaining > 0) {
+                if (offset == node.count) {
+                    node = node.next;
+                    offset = 0;
+                }
+                int end = Math.min(node.count, offset + remaining);
+                for (int i = offset; i < end; i++)
+                    action.accept((T) node.items[i]);
+                remaining -= end - offset;
+                offset = end;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (remaining < 2 * MIN_NODE_CAPACITY)
+                return null;
+            Node<T> cur = node;
+            int prefix = cur.count - offset;
+            while (prefix < remaining / 2) {
+                cur = cur.next;
+                prefix += cur.count;
+            }
+            if (prefix >= remaining)
+                return null;
+            Spliterator<T> first = new UnrolledSpliterator<>(node, offset, prefix);
+            node = cur.next;
+            offset = 0;
+            remaining -= prefix;
+            return first;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        forEach(t -> sb.append(t.toString()).append(", "));
+        sb.setLength(sb.length() - 2);
+        return sb.append(" }").toString();
+    }
+}
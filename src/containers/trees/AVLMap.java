@@ -0,0 +1,335 @@
+package containers.trees;
+
+import containers.ArrayList;
+import containers.Stack;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sorted map on the same AVL nodes and rebalancing as {@link AVLTree}: the value lives in the node next to the key,
+ * so an entry costs one node. Every operation does a single descent, recorded in a reused path array.
+ * Keys are ordered by the given comparator, or naturally when none is given.
+ */
+public class AVLMap<K, V> {
+
+
+    private static class MapNode<K, V> extends AVLTree.AVLNode<K> implements Map.Entry<K, V> {
+
+        V value;
+
+        MapNode(K key, V value) {
+            super(key);
+            this.value = value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void copyFrom(AVLTree.AVLNode<K> other) {
+            super.copyFrom(other);
+            value = ((MapNode<K, V>) other).value;
+        }
+
+        @Override
+        public K getKey() {
+            return data;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        // as specified by Map.Entry, so entries compare equal to those of any other map
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> entry
+                    && Objects.equals(data, entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(data) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return data + "=" + value;
+        }
+    }
+
+
+    private final Comparator<? super K> comparator;
+
+    private MapNode<K, V> root;
+    private int size = 0;
+
+    // emptied by rebalancing after a structural change, or by release() when the descent changed nothing
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final AVLTree.AVLNode<K>[] path = (AVLTree.AVLNode<K>[]) new AVLTree.AVLNode[AVLTree.MAX_HEIGHT];
+    private int depth;
+
+
+    /**
+     * Keys must be Comparable.
+     */
+    @SuppressWarnings("unchecked")
+    public AVLMap() {
+        this((Comparator<? super K>) Comparator.naturalOrder());
+    }
+
+    public AVLMap(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+
+    // descends to key, leaving its ancestors in path[0 .. depth - 1]; returns the node or null
+    @SuppressWarnings("unchecked")
+    private MapNode<K, V> descend(K key) {
+        depth = 0;
+        MapNode<K, V> cur = root;
+        while (cur != null) {
+            int cmp = comparator.compare(key, cur.data);
+            if (cmp == 0)
+                return cur;
+            path[depth++] = cur;
+            cur = (MapNode<K, V>) (cmp < 0 ? cur.left : cur.right);
+        }
+        return null;
+    }
+
+    // forgets the last descent so the path keeps no node reachable
+    private void release() {
+        Arrays.fill(path, 0, depth, null);
+        depth = 0;
+    }
+
+    // links a new node below path[depth - 1], where the last descent ended
+    @SuppressWarnings("unchecked")
+    private void attach(K key, V value) {
+        MapNode<K, V> node = new MapNode<>(key, value);
+        if (depth == 0) {
+            root = node;
+        } else {
+            AVLTree.AVLNode<K> parent = path[depth - 1];
+            if (comparator.compare(key, parent.data) < 0)
+                parent.left = node;
+            else
+                parent.right = node;
+            root = (MapNode<K, V>) AVLTree.rebalance(path, depth, root);
+        }
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void detach(MapNode<K, V> node) {
+        root = (MapNode<K, V>) AVLTree.removeAt(path, depth, node, root);
+        size--;
+    }
+
+
+    public V get(K key) {
+        MapNode<K, V> node = find(key);
+        return node == null ? null : node.value;
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MapNode<K, V> find(K key) {
+        MapNode<K, V> cur = root;
+        while (cur != null) {
+            int cmp = comparator.compare(key, cur.data);
+            if (cmp == 0)
+                return cur;
+            cur = (MapNode<K, V>) (cmp < 0 ? cur.left : cur.right);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the previous value, or null.
+     */
+    public V put(K key, V value) {
+        MapNode<K, V> node = descend(key);
+        if (node == null) {
+            attach(key, value);
+            return null;
+        }
+        release();
+        return node.setValue(value);
+    }
+
+    /**
+     * Returns the removed value, or null.
+     */
+    public V remove(K key) {
+        MapNode<K, V> node = descend(key);
+        if (node == null) {
+            release();
+            return null;
+        }
+        V value = node.value;
+        detach(node);
+        return value;
+    }
+
+    /**
+     * Like {@link Map#computeIfAbsent}; the function must not modify this map.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        MapNode<K, V> node = descend(key);
+        if (node != null && node.value != null) {
+            release();
+            return node.value;
+        }
+        V value = mappingFunction.apply(key);
+        if (value == null) {
+            release();
+            return null;
+        }
+        if (node != null) {
+            release();
+            node.value = value;
+        } else {
+            attach(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Like {@link Map#merge}: a null result removes the entry; the function must not modify this map.
+     */
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null)
+            throw new NullPointerException();
+        MapNode<K, V> node = descend(key);
+        if (node == null) {
+            attach(key, value);
+            return value;
+        }
+        V newValue = node.value == null ? value : remappingFunction.apply(node.value, value);
+        if (newValue == null) {
+            detach(node);
+        } else {
+            release();
+            node.value = newValue;
+        }
+        return newValue;
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    public boolean empty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    public int getHeight() {
+        return AVLTree.AVLNode.height(root);
+    }
+
+
+    public void traverse(Consumer<Map.Entry<K, V>> callback) {
+        traverse(callback, BinaryTree.TraversalType.DEPTH_INORDER);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void traverse(Consumer<Map.Entry<K, V>> callback, BinaryTree.TraversalType traversalType) {
+        if (root != null)
+            root.traverseNodes(node -> callback.accept((MapNode<K, V>) node), traversalType);
+    }
+
+    /**
+     * Entries in key order, walked lazily. The map must not be modified while iterating.
+     */
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new InorderIterator();
+    }
+
+    /**
+     * Entries in any traversal order; the order is collected up front, so this costs O(n) memory.
+     */
+    public Iterator<Map.Entry<K, V>> iterator(BinaryTree.TraversalType traversalType) {
+        ArrayList<Map.Entry<K, V>> entries = new ArrayList<>(size);
+        traverse(entries::add, traversalType);
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < entries.size();
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return entries.get(index++);
+            }
+        };
+    }
+
+    private class InorderIterator implements Iterator<Map.Entry<K, V>> {
+
+        private final Stack<MapNode<K, V>> stack = new Stack<>();
+
+        InorderIterator() {
+            pushLeft(root);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void pushLeft(BinaryTree.Node<K> node) {
+            for (; node != null; node = node.left)
+                stack.push((MapNode<K, V>) node);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.empty();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            MapNode<K, V> node = stack.pop();
+            pushLeft(node.right);
+            return node;
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        if (empty())
+            return "{ }";
+        StringBuilder sb = new StringBuilder("{ ");
+        traverse(entry -> sb.append(entry).append(", "));
+        sb.setLength(sb.length() - 2);
+        return sb.append(" }").toString();
+    }
+}
@@ -1,10 +1,19 @@
 package containers.trees;
 
+import algo.Sorts;
+import containers.List;
+import containers.Stack;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 public class AVLTree<T extends Comparable<T>> extends BinaryTree<T> {
 
-    private static class AVLNode<T> extends Node<T> {
+    static class AVLNode<T> extends Node<T> {
 
         public int height;
+        public int size; // nodes in this subtree
 
         public static <T> int height(AVLNode<T> node) {
             if (node == null)
@@ -12,13 +21,21 @@ public class AVLTree<T extends Comparable<T>> extends BinaryTree<T> {
             return node.height;
         }
 
+        public static <T> int size(Node<T> node) {
+            if (node == null)
+                return 0;
+            return ((AVLNode<T>) node).size;
+        }
+
         public AVLNode(T data) {
             super(data);
+            height = 1;
+            size = 1;
         }
 
         public AVLNode(T data, AVLNode<T> left, AVLNode<T> right) {
             super(data, left, right);
-            fixHeight();
+            fix();
         }
 
         public int getHeight() {
@@ -31,12 +48,26 @@ public class AVLTree<T extends Comparable<T>> extends BinaryTree<T> {
             height = Math.max(leftHeight, rightHeight) + 1;
         }
 
+        public void fixSize() {
+            size = size(left) + size(right) + 1;
+        }
+
+        public void fix() {
+            fixHeight();
+            fixSize();
+        }
+
+        // takes over the payload of the node that replaces this one in a removal
+        public void copyFrom(AVLNode<T> other) {
+            data = other.data;
+        }
+
         public void computeHeight() {
             if (left != null)
                 ((AVLNode<T>) left).computeHeight();
             if (right != null)
                 ((AVLNode<T>) right).computeHeight();
-            fixHeight();
+            fix();
         }
 
         public int getDiff() {
@@ -80,250 +111,419 @@ public class AVLTree<T extends Comparable<T>> extends BinaryTree<T> {
         }
     }
 
-    private class AVLTreeIterator extends FindingAVLTreeIterator {
+    // an AVL tree of n nodes is lower than 1.45 * log2(n + 2), so this covers any int-sized tree
+    static final int MAX_HEIGHT = 64;
 
-        @Override
-        public AVLTreeIterator setNode(T data) {
-            if (isNull()) {
-                if (isRoot()) {
-                    curNode = root = new AVLNode<>(data);
-                    size = 1;
-                } else {
-                    AVLNode<T> parent = (AVLNode<T>) ancestors.getLast();
-                    boolean isLeft = dirs.getLast();
-                    if (isLeft)
-                        curNode = parent.left = new AVLNode<>(data);
-                    else
-                        curNode = parent.right = new AVLNode<>(data);
-                    size++;
-                }
-            } else {
-                final int[] numOfChilds = {0};
-                Node.traverse(curNode.left, t -> numOfChilds[0]++);
-                Node.traverse(curNode.right, t -> numOfChilds[0]++);
-                curNode.left = curNode.right = null;
-                curNode.data = data;
-                size -= numOfChilds[0];
+    // ancestors of the node being inserted or removed, reused by every write and emptied after it
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final AVLNode<T>[] path = (AVLNode<T>[]) new AVLNode[MAX_HEIGHT];
+
+    public AVLTree() {
+        super();
+    }
+
+    public AVLTree(T rootData) {
+        this.root = new AVLNode<>(rootData);
+        this.size = 1;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from ascending data in O(n); equal neighbours are kept once, like insert does.
+     */
+    public static <T extends Comparable<T>> AVLTree<T> fromSorted(T[] sorted) {
+        return fromSortedArray(sorted.clone());
+    }
+
+    public static <T extends Comparable<T>> AVLTree<T> fromSorted(List<T> sorted) {
+        return fromSortedArray(sorted.toArray());
+    }
+
+    /**
+     * Sorts a copy of the data with {@link Sorts} and bulk loads it.
+     */
+    public static <T extends Comparable<T>> AVLTree<T> buildFrom(T[] data) {
+        Object[] array = data.clone();
+        Sorts.sort(array, AVLTree::compareObjects);
+        return fromSortedArray(array);
+    }
+
+    public static <T extends Comparable<T>> AVLTree<T> buildFrom(List<T> data) {
+        Object[] array = data.toArray();
+        Sorts.sort(array, AVLTree::compareObjects);
+        return fromSortedArray(array);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareObjects(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    // array is owned: duplicates are squeezed out in place
+    private static <T extends Comparable<T>> AVLTree<T> fromSortedArray(Object[] array) {
+        int n = 0;
+        for (Object obj : array) {
+            if (n > 0) {
+                int cmp = compareObjects(array[n - 1], obj);
+                if (cmp > 0)
+                    throw new IllegalArgumentException("data is not sorted");
+                if (cmp == 0)
+                    continue;
             }
-            return this;
+            array[n++] = obj;
         }
+        AVLTree<T> tree = new AVLTree<>();
+        tree.root = buildBalanced(array, 0, n);
+        tree.size = n;
+        return tree;
+    }
+
+    // middle element as the root, heights are fixed bottom up by the constructor
+    @SuppressWarnings("unchecked")
+    private static <T> AVLNode<T> buildBalanced(Object[] array, int start, int end) {
+        if (start >= end)
+            return null;
+        int mid = (start + end) >>> 1;
+        return new AVLNode<>((T) array[mid], buildBalanced(array, start, mid), buildBalanced(array, mid + 1, end));
+    }
+
+
+    @Override
+    public ReadOnlyAVLTreeIterator getIterator() {
+        return new ReadOnlyAVLTreeIterator();
+    }
 
-        public void insert(T data) {
-            find(data);
-            if (!isNull())
+    /**
+     * Allocates only the new node: the descent is recorded in a reused path array and rebalancing walks it back.
+     */
+    public void insert(T data) {
+        if (root == null) {
+            root = new AVLNode<>(data);
+            size = 1;
+            return;
+        }
+        int depth = 0;
+        AVLNode<T> cur = (AVLNode<T>) root;
+        while (true) {
+            int cmp = data.compareTo(cur.data);
+            if (cmp == 0) {
+                Arrays.fill(path, 0, depth, null);
                 return;
-            setNode(data);
-            balance();
+            }
+            path[depth++] = cur;
+            AVLNode<T> next = (AVLNode<T>) (cmp < 0 ? cur.left : cur.right);
+            if (next == null) {
+                if (cmp < 0)
+                    cur.left = new AVLNode<>(data);
+                else
+                    cur.right = new AVLNode<>(data);
+                break;
+            }
+            cur = next;
         }
+        size++;
+        root = rebalance(path, depth, (AVLNode<T>) root);
+    }
 
-        public void remove(T data) {
-            find(data);
-            if (isNull())
-                return;
-            findPrevValuePasteAndRemove(data);
-            balance();
+    public void remove(T data) {
+        int depth = 0;
+        AVLNode<T> cur = (AVLNode<T>) root;
+        while (cur != null) {
+            int cmp = data.compareTo(cur.data);
+            if (cmp == 0)
+                break;
+            path[depth++] = cur;
+            cur = (AVLNode<T>) (cmp < 0 ? cur.left : cur.right);
         }
+        if (cur == null) {
+            Arrays.fill(path, 0, depth, null);
+            return;
+        }
+        root = removeAt(path, depth, cur, (AVLNode<T>) root);
+        size--;
+    }
 
-        private void findPrevValuePasteAndRemove(T data) {
-            if (!hasLeft()) {
-                if (!hasRight()) {
-                    removeNode();
-                } else {
-                    curNode.data = curNode.right.data;
-                    removeRight();
-                    ((AVLNode<T>) curNode).fixHeight();
-                }
-            } else {
-                Node<T> whereToPaste = curNode;
-                gotoLeft();
-                find(data);
-                if (isNull())
-                    gotoParent();
-                whereToPaste.data = getData();
-                if (hasLeft()) {
-                    curNode.data = curNode.left.data;
-                    removeLeft();
-                    ((AVLNode<T>) curNode).fixHeight();
-                } else {
-                    removeNode();
-                }
-            }
-            if (!isRoot()) {
-                gotoParent();
-                ((AVLNode<T>) curNode).fixHeight();
+    /**
+     * Unlinks node, whose ancestors are path[0 .. depth - 1], and returns the new root.
+     * A node with two children takes the payload of its predecessor, which is unlinked instead.
+     */
+    static <T> AVLNode<T> removeAt(AVLNode<T>[] path, int depth, AVLNode<T> node, AVLNode<T> root) {
+        if (node.left != null && node.right != null) {
+            AVLNode<T> target = node;
+            path[depth++] = node;
+            node = (AVLNode<T>) node.left;
+            while (node.right != null) {
+                path[depth++] = node;
+                node = (AVLNode<T>) node.right;
             }
+            target.copyFrom(node);
         }
+        AVLNode<T> child = (AVLNode<T>) (node.left != null ? node.left : node.right);
+        if (depth == 0)
+            return child;
+        replaceChild(path[depth - 1], node, child);
+        return rebalance(path, depth, root);
+    }
+
+    private static <T> void replaceChild(AVLNode<T> parent, Node<T> oldChild, Node<T> newChild) {
+        if (parent.left == oldChild)
+            parent.left = newChild;
+        else
+            parent.right = newChild;
+    }
 
-        private void balance() {
-            if (isNull())
-                if (isRoot())
-                    return;
+    /**
+     * Fixes path[depth - 1] .. path[0], clearing each entry so the reused path keeps no node reachable,
+     * and returns the new root; once a subtree keeps its old height only the sizes above it change.
+     */
+    static <T> AVLNode<T> rebalance(AVLNode<T>[] path, int depth, AVLNode<T> root) {
+        boolean heightsSettled = false;
+        for (int i = depth - 1; i >= 0; i--) {
+            AVLNode<T> node = path[i];
+            path[i] = null;
+            if (heightsSettled) {
+                node.fixSize();
+                continue;
+            }
+            int oldHeight = node.height;
+            AVLNode<T> balanced = balance(node);
+            if (balanced != node) {
+                if (i == 0)
+                    root = balanced;
                 else
-                    gotoParent();
-            int diff = ((AVLNode<T>) curNode).getDiff();
-            if (diff == 2) { // left bigger
-                if (((AVLNode<T>) curNode.left).getDiff() == 1) { // left bigger
-                    rightRotation();
-                } else { // right bigger
-                    bigRightRotation();
-                }
-            } else if (diff == -2) { // right bigger
-                if (((AVLNode<T>) curNode.right).getDiff() == 1) { // left bigger
-                    bigLeftRotation();
-                } else { // right bigger
-                    leftRotation();
-                }
-            } else {
-                ((AVLNode<T>) curNode).fixHeight();
+                    replaceChild(path[i - 1], node, balanced);
             }
-            if (isRoot())
-                return;
-            gotoParent();
-            balance();
+            heightsSettled = balanced.height == oldHeight;
         }
+        return root;
+    }
 
-        private void rightRotation() {
-            if (!isRoot()) {
-                AVLNode<T> parent = (AVLNode<T>) ancestors.getLast();
-                boolean isLeft = dirs.getLast();
-                AVLNode<T> secondNode;
-                if (isLeft)
-                    secondNode = (AVLNode<T>) (parent.left = curNode.left);
-                else
-                    secondNode = (AVLNode<T>) (parent.right = curNode.left);
-                curNode.left = secondNode.right;
-                ((AVLNode<T>) curNode).fixHeight();
-                secondNode.right = curNode;
-                secondNode.fixHeight();
-                curNode = secondNode;
-            } else {
-                root = curNode.left;
-                curNode.left = root.right;
-                ((AVLNode<T>) curNode).fixHeight();
-                root.right = curNode;
-                ((AVLNode<T>) root).fixHeight();
-                curNode = root;
-            }
+    private static <T> AVLNode<T> balance(AVLNode<T> node) {
+        node.fix();
+        int diff = node.getDiff();
+        if (diff == 2) { // left bigger
+            if (((AVLNode<T>) node.left).getDiff() < 0)
+                node.left = rotateLeft((AVLNode<T>) node.left);
+            return rotateRight(node);
+        }
+        if (diff == -2) { // right bigger
+            if (((AVLNode<T>) node.right).getDiff() > 0)
+                node.right = rotateRight((AVLNode<T>) node.right);
+            return rotateLeft(node);
         }
+        return node;
+    }
 
-        private void leftRotation() {
-            if (!isRoot()) {
-                AVLNode<T> parent = (AVLNode<T>) ancestors.getLast();
-                boolean isLeft = dirs.getLast();
-                AVLNode<T> secondNode;
-                if (isLeft)
-                    secondNode = (AVLNode<T>) (parent.left = curNode.right);
-                else
-                    secondNode = (AVLNode<T>) (parent.right = curNode.right);
-                curNode.right = secondNode.left;
-                ((AVLNode<T>) curNode).fixHeight();
-                secondNode.left = curNode;
-                secondNode.fixHeight();
-                curNode = secondNode;
+    private static <T> AVLNode<T> rotateRight(AVLNode<T> node) {
+        AVLNode<T> left = (AVLNode<T>) node.left;
+        node.left = left.right;
+        left.right = node;
+        node.fix();
+        left.fix();
+        return left;
+    }
+
+    private static <T> AVLNode<T> rotateLeft(AVLNode<T> node) {
+        AVLNode<T> right = (AVLNode<T>) node.right;
+        node.right = right.left;
+        right.left = node;
+        node.fix();
+        right.fix();
+        return right;
+    }
+
+    public ReadOnlyAVLTreeIterator find(T data) {
+        return (ReadOnlyAVLTreeIterator) getIterator().find(data);
+    }
+
+    public int getHeight() {
+        return AVLNode.height(((AVLNode<T>) root));
+    }
+
+
+    /**
+     * k-th smallest element, counting from 0.
+     */
+    public T select(int k) {
+        if (k < 0 || k >= size)
+            throw new IndexOutOfBoundsException();
+        Node<T> cur = root;
+        while (true) {
+            int leftSize = AVLNode.size(cur.left);
+            if (k < leftSize) {
+                cur = cur.left;
+            } else if (k == leftSize) {
+                return cur.data;
             } else {
-                root = curNode.right;
-                curNode.right = root.left;
-                ((AVLNode<T>) curNode).fixHeight();
-                root.left = curNode;
-                ((AVLNode<T>) root).fixHeight();
-                curNode = root;
+                k -= leftSize + 1;
+                cur = cur.right;
             }
         }
+    }
 
-        private void bigRightRotation() {
-            if (!isRoot()) {
-                AVLNode<T> parent = (AVLNode<T>) ancestors.getLast();
-                boolean isLeft = dirs.getLast();
-                AVLNode<T> secondNode = (AVLNode<T>) curNode.left;
-                AVLNode<T> thirdNode = (AVLNode<T>) secondNode.right;
-                secondNode.right = thirdNode.left;
-                secondNode.fixHeight();
-                curNode.left = thirdNode.right;
-                ((AVLNode<T>) curNode).fixHeight();
-                thirdNode.left = secondNode;
-                thirdNode.right = curNode;
-                thirdNode.fixHeight();
-                if (isLeft)
-                    curNode = parent.left = thirdNode;
-                else
-                    curNode = parent.right = thirdNode;
+    /**
+     * Number of elements less than key.
+     */
+    public int rank(T key) {
+        return countLess(key, false);
+    }
+
+    /**
+     * Number of elements in [lo, hi].
+     */
+    public int countInRange(T lo, T hi) {
+        if (lo.compareTo(hi) > 0)
+            return 0;
+        return countLess(hi, true) - countLess(lo, false);
+    }
+
+    public T first() {
+        if (root == null)
+            return null;
+        Node<T> cur = root;
+        while (cur.left != null)
+            cur = cur.left;
+        return cur.data;
+    }
+
+    public T last() {
+        if (root == null)
+            return null;
+        Node<T> cur = root;
+        while (cur.right != null)
+            cur = cur.right;
+        return cur.data;
+    }
+
+    /**
+     * Greatest element not greater than key, or null.
+     */
+    public T floor(T key) {
+        return below(key, true);
+    }
+
+    /**
+     * Greatest element less than key, or null.
+     */
+    public T lower(T key) {
+        return below(key, false);
+    }
+
+    /**
+     * Least element not less than key, or null.
+     */
+    public T ceiling(T key) {
+        return above(key, true);
+    }
+
+    /**
+     * Least element greater than key, or null.
+     */
+    public T higher(T key) {
+        return above(key, false);
+    }
+
+    private T below(T key, boolean inclusive) {
+        T best = null;
+        Node<T> cur = root;
+        while (cur != null) {
+            int cmp = key.compareTo(cur.data);
+            if (cmp > 0 || cmp == 0 && inclusive) {
+                best = cur.data;
+                cur = cur.right;
             } else {
-                AVLNode<T> secondNode = (AVLNode<T>) curNode.left;
-                AVLNode<T> thirdNode = (AVLNode<T>) secondNode.right;
-                secondNode.right = thirdNode.left;
-                secondNode.fixHeight();
-                curNode.left = thirdNode.right;
-                ((AVLNode<T>) curNode).fixHeight();
-                thirdNode.left = secondNode;
-                thirdNode.right = curNode;
-                thirdNode.fixHeight();
-                root = thirdNode;
+                cur = cur.left;
             }
         }
+        return best;
+    }
 
-        private void bigLeftRotation() {
-            if (!isRoot()) {
-                AVLNode<T> parent = (AVLNode<T>) ancestors.getLast();
-                boolean isLeft = dirs.getLast();
-                AVLNode<T> secondNode = (AVLNode<T>) curNode.right;
-                AVLNode<T> thirdNode = (AVLNode<T>) secondNode.left;
-                secondNode.left = thirdNode.right;
-                secondNode.fixHeight();
-                curNode.right = thirdNode.left;
-                ((AVLNode<T>) curNode).fixHeight();
-                thirdNode.right = secondNode;
-                thirdNode.left = curNode;
-                thirdNode.fixHeight();
-                if (isLeft)
-                    curNode = parent.left = thirdNode;
-                else
-                    curNode = parent.right = thirdNode;
+    private T above(T key, boolean inclusive) {
+        T best = null;
+        Node<T> cur = root;
+        while (cur != null) {
+            int cmp = key.compareTo(cur.data);
+            if (cmp < 0 || cmp == 0 && inclusive) {
+                best = cur.data;
+                cur = cur.left;
             } else {
-                AVLNode<T> secondNode = (AVLNode<T>) curNode.right;
-                AVLNode<T> thirdNode = (AVLNode<T>) secondNode.left;
-                secondNode.left = thirdNode.right;
-                secondNode.fixHeight();
-                curNode.right = thirdNode.left;
-                ((AVLNode<T>) curNode).fixHeight();
-                thirdNode.right = secondNode;
-                thirdNode.left = curNode;
-                thirdNode.fixHeight();
-                root = thirdNode;
+                cur = cur.right;
             }
         }
+        return best;
     }
 
-    public AVLTree() {
-        super();
+    /**
+     * Ascending elements in [lo, hi], see {@link #range(Comparable, boolean, Comparable, boolean)}.
+     */
+    public Iterator<T> range(T lo, T hi) {
+        return range(lo, true, hi, true);
     }
 
-    public AVLTree(T rootData) {
-        this.root = new AVLNode<>(rootData);
-        this.size = 1;
+    /**
+     * Lazy ascending iterator over the elements between lo and hi; a null bound is open.
+     * It descends once to lo and then yields the next in-order node on demand, O(log n + k) for k elements.
+     * The tree must not be modified while iterating.
+     */
+    public Iterator<T> range(T lo, boolean loInclusive, T hi, boolean hiInclusive) {
+        return new RangeIterator(lo, loInclusive, hi, hiInclusive);
     }
 
-    @Override
-    public ReadOnlyAVLTreeIterator getIterator() {
-        return new ReadOnlyAVLTreeIterator();
-    }
+    private class RangeIterator implements Iterator<T> {
 
-    private AVLTreeIterator getWritableIterator() {
-        return new AVLTreeIterator();
-    }
+        // nodes whose data and right subtree are still to be visited, the next one on top
+        private final Stack<Node<T>> stack = new Stack<>();
+        private final T hi;
+        private final boolean hiInclusive;
 
-    public void insert(T data) {
-        getWritableIterator().insert(data);
-    }
+        RangeIterator(T lo, boolean loInclusive, T hi, boolean hiInclusive) {
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            Node<T> cur = root;
+            while (cur != null) {
+                int cmp = lo == null ? 1 : cur.data.compareTo(lo);
+                if (cmp > 0 || cmp == 0 && loInclusive) {
+                    stack.push(cur);
+                    cur = cur.left;
+                } else {
+                    cur = cur.right;
+                }
+            }
+        }
 
-    public void remove(T data) {
-        getWritableIterator().remove(data);
-    }
+        @Override
+        public boolean hasNext() {
+            if (stack.empty())
+                return false;
+            if (hi == null)
+                return true;
+            int cmp = stack.top().data.compareTo(hi);
+            return cmp < 0 || cmp == 0 && hiInclusive;
+        }
 
-    public ReadOnlyAVLTreeIterator find(T data) {
-        return (ReadOnlyAVLTreeIterator) getIterator().find(data);
+        @Override
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Node<T> node = stack.pop();
+            for (Node<T> cur = node.right; cur != null; cur = cur.left)
+                stack.push(cur);
+            return node.data;
+        }
     }
 
-    public int getHeight() {
-        return AVLNode.height(((AVLNode<T>) root));
+    // elements less than key, or not greater when inclusive
+    private int countLess(T key, boolean inclusive) {
+        int count = 0;
+        Node<T> cur = root;
+        while (cur != null) {
+            int cmp = key.compareTo(cur.data);
+            if (cmp < 0 || cmp == 0 && !inclusive) {
+                cur = cur.left;
+            } else {
+                count += AVLNode.size(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return count;
     }
 }
\ No newline at end of file
@@ -1,10 +1,9 @@
 package containers.trees;
 
+import containers.ArrayDeque;
 import containers.ArrayList;
 import containers.Stack;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.function.Consumer;
 
 public class BinaryTree<T> {
@@ -60,67 +59,71 @@ public class BinaryTree<T> {
         }
 
         public void traverse(Consumer<T> callback, TraversalType traversalType) {
+            traverseNodes(node -> callback.accept(node.data), traversalType);
+        }
+
+        public void traverseNodes(Consumer<Node<T>> visitor, TraversalType traversalType) {
             switch (traversalType) {
-                case BREADTH, BREADTH_LEFT_TO_RIGHT -> traverseBreadthLeftToRight(callback);
-                case BREADTH_RIGHT_TO_LEFT -> traverseBreadthRightToLeft(callback);
-                case DEFAULT, DEPTH, DEPTH_LEFT_TO_RIGHT, DEPTH_PREORDER, DEPTH_PREORDER_LEFT_TO_RIGHT -> traverseDepthPreorderLeftToRight(callback);
-                case DEPTH_RIGHT_TO_LEFT, DEPTH_PREORDER_RIGHT_TO_LEFT -> traverseDepthPreorderRightToLeft(callback);
-                case DEPTH_INORDER, DEPTH_INORDER_LEFT_TO_RIGHT -> traverseDepthInorderLeftToRight(callback);
-                case DEPTH_INORDER_RIGHT_TO_LEFT -> traverseDepthInorderRightToLeft(callback);
-                case DEPTH_POSTORDER, DEPTH_POSTORDER_LEFT_TO_RIGHT -> traverseDepthPostorderLeftToRight(callback);
-                case DEPTH_POSTORDER_RIGHT_TO_LEFT -> traverseDepthPostorderRightToLeft(callback);
+                case BREADTH, BREADTH_LEFT_TO_RIGHT -> traverseBreadthLeftToRight(visitor);
+                case BREADTH_RIGHT_TO_LEFT -> traverseBreadthRightToLeft(visitor);
+                case DEFAULT, DEPTH, DEPTH_LEFT_TO_RIGHT, DEPTH_PREORDER, DEPTH_PREORDER_LEFT_TO_RIGHT -> traverseDepthPreorderLeftToRight(visitor);
+                case DEPTH_RIGHT_TO_LEFT, DEPTH_PREORDER_RIGHT_TO_LEFT -> traverseDepthPreorderRightToLeft(visitor);
+                case DEPTH_INORDER, DEPTH_INORDER_LEFT_TO_RIGHT -> traverseDepthInorderLeftToRight(visitor);
+                case DEPTH_INORDER_RIGHT_TO_LEFT -> traverseDepthInorderRightToLeft(visitor);
+                case DEPTH_POSTORDER, DEPTH_POSTORDER_LEFT_TO_RIGHT -> traverseDepthPostorderLeftToRight(visitor);
+                case DEPTH_POSTORDER_RIGHT_TO_LEFT -> traverseDepthPostorderRightToLeft(visitor);
                 default -> throw new Error("unknown traversal type");
             }
         }
-        private void traverseBreadthLeftToRight(Consumer<T> callback) {
-            Deque<Node<T>> queue = new ArrayDeque<>();
+        private void traverseBreadthLeftToRight(Consumer<Node<T>> visitor) {
+            ArrayDeque<Node<T>> queue = new ArrayDeque<>();
             queue.add(this);
-            while (!queue.isEmpty()) {
-                Node<T> cur = queue.pop();
-                callback.accept(cur.data);
+            while (!queue.empty()) {
+                Node<T> cur = queue.popFirst();
+                visitor.accept(cur);
                 if (cur.left != null)
                     queue.add(cur.left);
                 if (cur.right != null)
                     queue.add(cur.right);
             }
         }
-        private void traverseBreadthRightToLeft(Consumer<T> callback) {
-            Deque<Node<T>> queue = new ArrayDeque<>();
+        private void traverseBreadthRightToLeft(Consumer<Node<T>> visitor) {
+            ArrayDeque<Node<T>> queue = new ArrayDeque<>();
             queue.add(this);
-            while (!queue.isEmpty()) {
-                Node<T> cur = queue.pop();
-                callback.accept(cur.data);
+            while (!queue.empty()) {
+                Node<T> cur = queue.popFirst();
+                visitor.accept(cur);
                 if (cur.right != null)
                     queue.add(cur.right);
                 if (cur.left != null)
                     queue.add(cur.left);
             }
         }
-        private void traverseDepthPreorderLeftToRight(Consumer<T> callback) {
+        private void traverseDepthPreorderLeftToRight(Consumer<Node<T>> visitor) {
             Stack<Node<T>> stack = new Stack<>();
             stack.push(this);
             while (!stack.empty()) {
                 Node<T> cur = stack.pop();
-                callback.accept(cur.data);
+                visitor.accept(cur);
                 if (cur.right != null)
                     stack.push(cur.right);
                 if (cur.left != null)
                     stack.push(cur.left);
             }
         }
-        private void traverseDepthPreorderRightToLeft(Consumer<T> callback) {
+        private void traverseDepthPreorderRightToLeft(Consumer<Node<T>> visitor) {
             Stack<Node<T>> stack = new Stack<>();
             stack.push(this);
             while (!stack.empty()) {
                 Node<T> cur = stack.pop();
-                callback.accept(cur.data);
+                visitor.accept(cur);
                 if (cur.left != null)
                     stack.push(cur.left);
                 if (cur.right != null)
                     stack.push(cur.right);
             }
         }
-        private void traverseDepthInorderLeftToRight(Consumer<T> callback) {
+        private void traverseDepthInorderLeftToRight(Consumer<Node<T>> visitor) {
             Stack<Node<T>> stack = new Stack<>();
             Node<T> cur = this;
             while (!stack.empty() || cur != null) {
@@ -129,12 +132,12 @@ public class BinaryTree<T> {
                     cur = cur.left;
                 } else {
                     cur = stack.pop();
-                    callback.accept(cur.data);
+                    visitor.accept(cur);
                     cur = cur.right;
                 }
             }
         }
-        private void traverseDepthInorderRightToLeft(Consumer<T> callback) {
+        private void traverseDepthInorderRightToLeft(Consumer<Node<T>> visitor) {
             Stack<Node<T>> stack = new Stack<>();
             Node<T> cur = this;
             while (!stack.empty() || cur != null) {
@@ -143,12 +146,12 @@ public class BinaryTree<T> {
                     cur = cur.right;
                 } else {
                     cur = stack.pop();
-                    callback.accept(cur.data);
+                    visitor.accept(cur);
                     cur = cur.left;
                 }
             }
         }
-        private void traverseDepthPostorderLeftToRight(Consumer<T> callback) {
+        private void traverseDepthPostorderLeftToRight(Consumer<Node<T>> visitor) {
             Stack<Node<T>> stack = new Stack<>();
             Node<T> cur = this;
             Node<T> lastVisitedNode = null;
@@ -161,13 +164,13 @@ public class BinaryTree<T> {
                     if (topNode.right != null && lastVisitedNode != topNode.right) {
                         cur = topNode.right;
                     } else {
-                        callback.accept(topNode.data);
+                        visitor.accept(topNode);
                         lastVisitedNode = stack.pop();
                     }
                 }
             }
         }
-        private void traverseDepthPostorderRightToLeft(Consumer<T> callback) {
+        private void traverseDepthPostorderRightToLeft(Consumer<Node<T>> visitor) {
             Stack<Node<T>> stack = new Stack<>();
             Node<T> cur = this;
             Node<T> lastVisitedNode = null;
@@ -180,7 +183,7 @@ public class BinaryTree<T> {
                     if (topNode.left != null && lastVisitedNode != topNode.left) {
                         cur = topNode.left;
                     } else {
-                        callback.accept(topNode.data);
+                        visitor.accept(topNode);
                         lastVisitedNode = stack.pop();
                     }
                 }